@@ -0,0 +1,86 @@
+package com.crud.confg;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Full per-request cost of JwtAuthFilter (header parse, token resolve, Authentication build)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int sessions;
+
+    @Param({"opaque", "signed"})
+    public String mode;
+
+    private JwtAuthFilter filter;
+    private String[] headers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtUtil jwtUtil = JwtUtilBenchmark.newJwtUtil(mode, sessions * 2);
+        filter = new JwtAuthFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+
+        headers = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            headers[i] = "Bearer " + jwtUtil.generateToken("user" + i + "@example.com", i % 10 == 0 ? "ADMIN" : "USER");
+        }
+    }
+
+    private MockHttpServletResponse filterOnce(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user-profiles/1");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilterInternal(request, response, new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticatedRequest() throws Exception {
+        return filterOnce(headers[ThreadLocalRandom.current().nextInt(sessions)]);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse anonymousRequest() throws Exception {
+        return filterOnce(null);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse unknownToken() throws Exception {
+        return filterOnce("Bearer zzzzzzzz");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public MockHttpServletResponse authenticatedRequestContended() throws Exception {
+        return filterOnce(headers[ThreadLocalRandom.current().nextInt(sessions)]);
+    }
+}
@@ -0,0 +1,103 @@
+package com.crud.confg;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Per-call cost of issuing and resolving tokens with 1k / 10k / 100k live sessions
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int sessions;
+
+    @Param({"opaque", "signed"})
+    public String mode;
+
+    private JwtUtil jwtUtil;
+    private String[] emails;
+    private String[] tokens;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = newJwtUtil(mode, sessions * 2);
+        emails = new String[sessions];
+        tokens = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            emails[i] = "user" + i + "@example.com";
+            tokens[i] = jwtUtil.generateToken(emails[i], "USER");
+        }
+    }
+
+    static JwtUtil newJwtUtil(String mode, int maxSessions) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "mode", mode);
+        ReflectionTestUtils.setField(jwtUtil, "secret", "");
+        ReflectionTestUtils.setField(jwtUtil, "expirationMinutes", 1440L);
+        ReflectionTestUtils.setField(jwtUtil, "sessionIdleMinutes", 60L);
+        ReflectionTestUtils.setField(jwtUtil, "maxSessions", maxSessions);
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtil, "revocations", new TokenRevocationList());
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private int pick() {
+        return ThreadLocalRandom.current().nextInt(sessions);
+    }
+
+    // re-login of an existing user: replaces that user's token, session count stays flat
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(emails[pick()], "USER");
+    }
+
+    @Benchmark
+    public String extractEmail() {
+        return jwtUtil.extractEmail(tokens[pick()]);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        int i = pick();
+        return jwtUtil.validateToken(tokens[i], emails[i]);
+    }
+
+    @Benchmark
+    public String extractEmailUnknownToken() {
+        return jwtUtil.extractEmail("zzzzzzzz");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String extractEmailContended() {
+        return jwtUtil.extractEmail(tokens[pick()]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean validateTokenContended() {
+        int i = pick();
+        return jwtUtil.validateToken(tokens[i], emails[i]);
+    }
+}
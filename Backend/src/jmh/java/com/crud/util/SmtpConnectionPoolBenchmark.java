@@ -0,0 +1,104 @@
+package com.crud.util;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Messages per second against an embedded GreenMail SMTP server: one connection per message vs pooled
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmtpConnectionPoolBenchmark {
+
+    private static final int BATCH = 20;
+
+    private GreenMail greenMail;
+    private JavaMailSenderImpl mailSender;
+    private SmtpConnectionPool pool;
+    private SimpleMailMessage message;
+    private List<SimpleMailMessage> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+
+        pool = new SmtpConnectionPool();
+        ReflectionTestUtils.setField(pool, "size", 2);
+        ReflectionTestUtils.setField(pool, "maxMessagesPerConnection", 100);
+        ReflectionTestUtils.setField(pool, "maxLifetimeSeconds", 300L);
+        ReflectionTestUtils.setField(pool, "idleTimeoutSeconds", 60L);
+        ReflectionTestUtils.setField(pool, "validateAfterMs", 10_000L);
+        ReflectionTestUtils.setField(pool, "borrowTimeoutMs", 10_000L);
+        ReflectionTestUtils.setField(pool, "mailSender", mailSender);
+        ReflectionTestUtils.setField(pool, "meterRegistry", new SimpleMeterRegistry());
+        pool.init();
+
+        message = new SimpleMailMessage();
+        message.setFrom("noreply@example.com");
+        message.setTo("superadmin@example.com");
+        message.setSubject("Document Uploaded Successfully");
+        message.setText("User 'someone' uploaded a document.\nDocument Name: Aadhaar\nOriginal File: scan.pdf");
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(message);
+        }
+    }
+
+    // GreenMail keeps every message in memory; drop them between iterations
+    @TearDown(Level.Iteration)
+    public void purge() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+        greenMail.stop();
+    }
+
+    // what JavaMailSender.send does: connect, (TLS, login,) send, quit
+    @Benchmark
+    public void connectionPerMessage() {
+        mailSender.send(message);
+    }
+
+    @Benchmark
+    public void pooledSingle() {
+        pool.send(message);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public MailException[] pooledBatch() {
+        return pool.sendBatch(batch);
+    }
+}
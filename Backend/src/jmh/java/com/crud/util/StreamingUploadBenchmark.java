@@ -0,0 +1,91 @@
+package com.crud.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claim upload write path: old getBytes() + Files.write vs StreamingUpload.
+ * Run with -prof gc and compare gc.alloc.rate.norm (bytes per upload) across sizes.
+ *
+ * source=file is a multipart part spooled to disk (FileInputStream, kernel copy);
+ * source=stream forces the generic InputStream path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingUploadBenchmark {
+
+    private static final long MAX_FILE_SIZE_BYTES = 2L * 1024L * 1024L;
+
+    @Param({"65536", "524288", "2097152"})
+    public int size;
+
+    @Param({"file", "stream"})
+    public String source;
+
+    private Path dir;
+    private Path upload;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("upload-bench");
+        byte[] content = new byte[size];
+        ThreadLocalRandom.current().nextBytes(content);
+        System.arraycopy(new byte[]{'%', 'P', 'D', 'F', '-'}, 0, content, 0, 5);
+        upload = Files.write(dir.resolve("part.tmp"), content);
+        target = dir.resolve("stored.pdf");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    private InputStream open() throws IOException {
+        FileInputStream in = new FileInputStream(upload.toFile());
+        return "file".equals(source) ? in : new BufferedInputStream(in);
+    }
+
+    @Benchmark
+    public long heapCopy() throws IOException {
+        Files.deleteIfExists(target);
+        try (InputStream in = open()) {
+            byte[] bytes = in.readAllBytes();   // what MultipartFile.getBytes() does
+            Files.write(target, bytes);
+            return bytes.length;
+        }
+    }
+
+    @Benchmark
+    public long streaming() throws IOException {
+        Files.deleteIfExists(target);
+        try (InputStream in = open()) {
+            return StreamingUpload.store(in, "application/pdf", MAX_FILE_SIZE_BYTES, target);
+        }
+    }
+}
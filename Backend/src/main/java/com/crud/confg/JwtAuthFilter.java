@@ -5,7 +5,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.crud.enums.Role;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
@@ -16,10 +18,22 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    // One shared authority set per role, so building the Authentication needs no DB lookup
+    private static final Map<String, Set<GrantedAuthority>> AUTHORITIES = new HashMap<>();
+
+    static {
+        for (Role role : Role.values()) {
+            AUTHORITIES.put(role.name(), Collections.singleton(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -36,15 +50,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         if (token != null) {
-            //  Extract email mapped to this token
-            String email = jwtUtil.extractEmail(token);
+            //  Resolve the session mapped to this token (single lookup)
+            TokenSession session = jwtUtil.resolve(token);
 
-            if (email != null && jwtUtil.validateToken(token, email)) {
-                //  Assign ROLE_USER (or you can map from DB later)
+            if (session != null) {
+                //  Role was recorded when the token was issued (USER / ADMIN / SUPER_ADMIN)
                 UserDetails userDetails = new User(
-                        email,
+                        session.getEmail(),
                         "",
-                        Collections.singleton(new SimpleGrantedAuthority("ROLE_USER"))
+                        authoritiesFor(session.getRole())
                 );
 
                 UsernamePasswordAuthenticationToken authToken =
@@ -57,4 +71,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private static Set<GrantedAuthority> authoritiesFor(String role) {
+        Set<GrantedAuthority> authorities = role != null ? AUTHORITIES.get(role) : null;
+        return authorities != null ? authorities : AUTHORITIES.get(Role.USER.name());
+    }
 }
@@ -1,54 +1,262 @@
 package com.crud.confg;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import com.crud.util.ExpiringCache;
+import com.crud.util.ExpiringCacheMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.security.Key;
 import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtil {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
     private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
     private static final int TOKEN_LENGTH = 8;
+    private static final String ROLE_CLAIM = "role";
     private final SecureRandom random = new SecureRandom();
 
-    // In-memory storage for demo (better: Redis/DB)
-    private final Map<String, String> tokenStore = new ConcurrentHashMap<>();
+    // "opaque" = random 8-char tokens held in this JVM, "signed" = self-contained HS256 JWTs
+    @Value("${jwt.mode:opaque}")
+    private String mode;
+
+    // Base64 HMAC key shared by every replica; at least 256 bits
+    @Value("${jwt.secret:}")
+    private String secret;
+
+    @Value("${jwt.expiration-minutes:1440}")
+    private long expirationMinutes;
+
+    // Opaque sessions expire after this much inactivity (every authenticated request slides it)
+    @Value("${jwt.session.idle-minutes:60}")
+    private long sessionIdleMinutes;
+
+    // Hard cap on opaque sessions held in memory; the soonest-expiring ones are dropped first
+    @Value("${jwt.session.max-sessions:100000}")
+    private int maxSessions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TokenRevocationList revocations;
+
+    private Key signingKey;
+    private JwtParser parser;
+
+    // token -> session, so a bearer token resolves with a single hash lookup
+    private ExpiringCache<String, TokenSession> tokenStore;
+
+    // email -> current token, so a new login replaces (and drops) the previous token
+    private final Map<String, String> tokensByEmail = new ConcurrentHashMap<>();
+
+    // sessions evicted while generateToken holds an email's mapping; unlinked once it is released,
+    // since the map must not be modified from inside its own compute
+    private final ThreadLocal<List<TokenSession>> evictedWhileIssuing = new ThreadLocal<>();
+
+    @PostConstruct
+    void init() {
+        tokenStore = new ExpiringCache<String, TokenSession>(
+                "auth.sessions", Duration.ofMinutes(sessionIdleMinutes), true, maxSessions, Duration.ofSeconds(1))
+                .onEviction((token, session) -> {
+                    List<TokenSession> deferred = evictedWhileIssuing.get();
+                    if (deferred != null) {
+                        deferred.add(session);
+                    } else {
+                        tokensByEmail.remove(session.getEmail(), token);
+                    }
+                });
+        new ExpiringCacheMetrics(tokenStore).bindTo(meterRegistry);
+
+        if (!isSignedMode()) {
+            return;
+        }
+        if (secret == null || secret.isBlank()) {
+            // still works on a single node, but tokens will not survive a restart or cross replicas
+            log.warn("jwt.mode=signed without jwt.secret; using a random per-process key");
+            signingKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        } else {
+            signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        }
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
 
-    //  Generate 8-char token
+    public boolean isSignedMode() {
+        return "signed".equalsIgnoreCase(mode);
+    }
+
+    //  Generate token (8-char in opaque mode, signed JWT in signed mode)
     public String generateToken(String email, String role) {
-        StringBuilder token = new StringBuilder(TOKEN_LENGTH);
-        for (int i = 0; i < TOKEN_LENGTH; i++) {
-            token.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        if (isSignedMode()) {
+            return generateSignedToken(email, role);
+        }
+        // insert and swap under the email's mapping, so a concurrent revokeAllFor sees either the
+        // old token or the new one, never a stored token that is not yet linked to the email
+        String[] issued = new String[1];
+        List<TokenSession> evicted = new ArrayList<>();
+        evictedWhileIssuing.set(evicted);
+        try {
+            tokensByEmail.compute(email, (key, previous) -> {
+                if (previous != null) {
+                    tokenStore.remove(previous);
+                }
+                String token;
+                do {
+                    token = randomToken();
+                } while (tokenStore.putIfAbsent(token, new TokenSession(token, token, email, role, Instant.now(), null)) != null);
+                issued[0] = token;
+                return token;
+            });
+        } finally {
+            evictedWhileIssuing.remove();
+        }
+        for (TokenSession session : evicted) {
+            tokensByEmail.remove(session.getEmail(), session.getToken());
+        }
+        return issued[0];
+    }
+
+    //  Resolve the session behind a token, or null if the token is unknown / malformed / expired
+    public TokenSession resolve(String token) {
+        if (token == null) {
+            return null;
+        }
+        if (signingKey != null && token.indexOf('.') > 0) {
+            TokenSession session = parseSignedToken(token);
+            return session != null && revocations.isRevoked(session) ? null : session;
+        }
+        if (!isWellFormed(token)) {
+            return null;
         }
-        String finalToken = token.toString();
-        tokenStore.put(email, finalToken); // store for validation
-        return finalToken;
+        return tokenStore.get(token);
     }
 
     //  Extract email from token
     public String extractEmail(String token) {
-        return tokenStore.entrySet()
-                .stream()
-                .filter(entry -> entry.getValue().equals(token))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(null);
+        TokenSession session = resolve(token);
+        return session != null ? session.getEmail() : null;
     }
 
-    //  Check if token is valid (length + chars + stored)
+    //  Check if token is valid (signature/expiry for JWTs, length + chars + stored otherwise)
     public boolean validateToken(String token, String email) {
-        if (token == null || token.length() != TOKEN_LENGTH) {
+        TokenSession session = resolve(token);
+        return session != null && session.getEmail().equals(email);
+    }
+
+    //  Logout: opaque tokens are dropped from the store, signed ones are revoked until they expire
+    public boolean revoke(String token) {
+        TokenSession session = resolve(token);
+        if (session == null) {
             return false;
         }
+        if (session.getExpiresAt() != null) {
+            revocations.revoke(session.getTokenId(), session.getExpiresAt().toEpochMilli());
+        } else if (tokenStore.remove(token, session)) {
+            tokensByEmail.remove(session.getEmail(), token);
+        }
+        return true;
+    }
 
-        // check only alphanumeric
-        if (!token.matches("^[A-Za-z0-9]+$")) {
-            return false;
+    //  Kills every token issued to this email so far (admin action, e.g. compromised account)
+    public void revokeAllFor(String email) {
+        if (isSignedMode()) {
+            revocations.revokeIssuedBefore(email, System.currentTimeMillis());
+        }
+        String token = tokensByEmail.remove(email);
+        if (token != null) {
+            tokenStore.remove(token);
+        }
+    }
+
+    public long activeSessions() {
+        return tokenStore.size();
+    }
+
+    // Runs every second; only visits the timer-wheel slots that have come due
+    @Scheduled(fixedDelay = 1000)
+    public void evictExpiredSessions() {
+        tokenStore.evictExpired();
+    }
+
+    // Revocations only need to outlive the tokens they block
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeRevocations() {
+        revocations.purgeExpired(Duration.ofMinutes(expirationMinutes).toMillis());
+    }
+
+    private String generateSignedToken(String email, String role) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(Duration.ofMinutes(expirationMinutes));
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(email)
+                .claim(ROLE_CLAIM, role)
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(expiresAt))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private TokenSession parseSignedToken(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            return new TokenSession(
+                    token,
+                    claims.getId(),
+                    claims.getSubject(),
+                    claims.get(ROLE_CLAIM, String.class),
+                    claims.getIssuedAt().toInstant(),
+                    claims.getExpiration().toInstant()
+            );
+        } catch (JwtException | IllegalArgumentException e) {
+            // bad signature, expired, or not a JWT at all
+            return null;
         }
+    }
 
-        // check against stored token
-        return tokenStore.containsKey(email) && tokenStore.get(email).equals(token);
+    private String randomToken() {
+        char[] token = new char[TOKEN_LENGTH];
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            token[i] = CHARACTERS.charAt(random.nextInt(CHARACTERS.length()));
+        }
+        return new String(token);
+    }
+
+    // length + alphanumeric check without compiling a regex per call
+    private static boolean isWellFormed(String token) {
+        if (token.length() != TOKEN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            char c = token.charAt(i);
+            boolean alphanumeric = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+            if (!alphanumeric) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,206 @@
+package com.crud.confg;
+
+import com.crud.util.TokenBucketRateLimiter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Throttles the login / OTP endpoints per client IP and per email, ahead of JwtAuthFilter
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of(
+            "/api/auth/login",
+            "/api/auth/verify-otp",
+            "/api/admin/login",
+            "/api/admin/verify-otp"
+    );
+
+    // login bodies are tiny; anything bigger is refused before it is buffered
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+
+    @Value("${rate-limit.ip.capacity:30}")
+    private int ipCapacity;
+
+    @Value("${rate-limit.ip.refill-seconds:60}")
+    private long ipRefillSeconds;
+
+    @Value("${rate-limit.email.capacity:5}")
+    private int emailCapacity;
+
+    @Value("${rate-limit.email.refill-seconds:60}")
+    private long emailRefillSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private TokenBucketRateLimiter ipLimiter;
+    private TokenBucketRateLimiter emailLimiter;
+    private Counter ipRejections;
+    private Counter emailRejections;
+
+    @PostConstruct
+    void init() {
+        ipLimiter = new TokenBucketRateLimiter("ip", ipCapacity,
+                Duration.ofSeconds(ipRefillSeconds), Duration.ofMinutes(10));
+        emailLimiter = new TokenBucketRateLimiter("email", emailCapacity,
+                Duration.ofSeconds(emailRefillSeconds), Duration.ofMinutes(10));
+
+        ipRejections = Counter.builder("auth.rate_limit.rejected").tag("key", "ip").register(meterRegistry);
+        emailRejections = Counter.builder("auth.rate_limit.rejected").tag("key", "email").register(meterRegistry);
+        Gauge.builder("auth.rate_limit.buckets", ipLimiter, TokenBucketRateLimiter::trackedKeys)
+                .tag("key", "ip").register(meterRegistry);
+        Gauge.builder("auth.rate_limit.buckets", emailLimiter, TokenBucketRateLimiter::trackedKeys)
+                .tag("key", "email").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !LIMITED_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        // IP first: it is free to check and stops floods before the body is even read
+        long retryAfter = ipLimiter.tryAcquire(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            ipRejections.increment();
+            reject(request, response, retryAfter);
+            return;
+        }
+
+        if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+
+        String email = extractEmail(body);
+        if (email != null) {
+            retryAfter = emailLimiter.tryAcquire(email);
+            if (retryAfter > 0) {
+                emailRejections.increment();
+                reject(request, response, retryAfter);
+                return;
+            }
+        }
+
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        ipLimiter.evictIdle();
+        emailLimiter.evictIdle();
+    }
+
+    private String extractEmail(byte[] body) {
+        try {
+            JsonNode email = mapper.readTree(body).get("email");
+            if (email == null || !email.isTextual()) {
+                return null;
+            }
+            return email.asText().trim().toLowerCase();
+        } catch (IOException e) {
+            return null;   // not JSON; the controller will reject it anyway
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now().toString());
+        body.put("status", 429);
+        body.put("error", "Too Many Requests");
+        body.put("message", "Too many attempts, retry in " + retryAfterSeconds + "s");
+        body.put("path", request.getServletPath());
+
+        response.getOutputStream().println(mapper.writeValueAsString(body));
+    }
+
+    // Buffers a small JSON body so it can be read here and again by the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() { return in.available() == 0; }
+
+                @Override
+                public boolean isReady() { return true; }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // the whole body is already in memory: it is all available, then all read
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() { return in.read(); }
+
+                @Override
+                public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -27,6 +27,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthFilter jwtAuthFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
@@ -68,9 +71,18 @@ public class SecurityConfig {
                                 "/api/documents/download/{id}",
                                 "/api/claims/documents/view/{claimDocumentId}",
                                 "/api/claims/documents/download/{claimDocumentId}",
-                                "/admin/policy-plans/all"
+                                "/api/admin/register",
+                                "/api/admin/login",
+                                "/api/admin/verify-otp",
+                                "/api/admin-policy/policy-plans/all",
+                                "/api/admin-policy/policy-plans/view-image/{planId}",
+                                "/actuator/health"
                         ).permitAll()
 
+                        //  Admin APIs: role comes from the token, no DB lookup per request
+                        .requestMatchers("/api/admin/**", "/api/admin-policy/**").hasAnyRole("ADMIN", "SUPER_ADMIN")
+                        .requestMatchers("/actuator/**").hasRole("SUPER_ADMIN")
+
                         //  Secure COMPLETE User Profile (all CRUD)
                         .requestMatchers("/api/user-profiles/**").authenticated()
 
@@ -83,7 +95,9 @@ public class SecurityConfig {
                         // everything else open
                         .anyRequest().permitAll()
                 )
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // throttle login/OTP traffic before any token, BCrypt or mail work happens
+                .addFilterBefore(rateLimitFilter, JwtAuthFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,114 @@
+package com.crud.confg;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked signed tokens, checked on every authenticated request.
+ *
+ * A Bloom filter sits in front of the exact set: for the common case of a token that was
+ * never revoked the check is three bit probes on the token id's cached hash code, with no
+ * map lookup and no allocation. Entries age out once the token would have expired anyway,
+ * and the filter is rebuilt from the surviving entries so it does not fill up over time.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final int BLOOM_BITS = 1 << 20;   // 128 KB, ~1% false positives at 100k revocations
+    private static final int BLOOM_HASHES = 3;
+
+    // token id -> epoch millis at which the token expires (and the entry can be dropped)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    // email -> epoch millis of a whole second; every token for that email issued before it is revoked
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    private volatile AtomicLongArray bloom = new AtomicLongArray(BLOOM_BITS / 64);
+
+    public void revoke(String tokenId, long expiresAtMillis) {
+        revokedTokens.put(tokenId, expiresAtMillis);
+        addToBloom(bloom, tokenId);
+    }
+
+    // a JWT iat only has second precision, so the cutoff is the next whole second: tokens issued
+    // earlier in the same second are caught, at the price of also revoking any issued just after
+    public void revokeIssuedBefore(String email, long epochMillis) {
+        long cutoff = (Math.floorDiv(epochMillis, 1000L) + 1) * 1000L;
+        revokedBefore.merge(email, cutoff, Math::max);
+    }
+
+    public boolean isRevoked(TokenSession session) {
+        if (!revokedBefore.isEmpty()) {
+            Long cutoff = revokedBefore.get(session.getEmail());
+            if (cutoff != null && session.getIssuedAt().toEpochMilli() < cutoff) {
+                return true;
+            }
+        }
+        String tokenId = session.getTokenId();
+        return tokenId != null && mightContain(bloom, tokenId) && revokedTokens.containsKey(tokenId);
+    }
+
+    public int size() {
+        return revokedTokens.size();
+    }
+
+    /**
+     * Drops entries for tokens that have expired on their own and rebuilds the filter.
+     * {@code maxTokenLifetimeMillis} bounds how long a per-email cutoff can matter.
+     */
+    public void purgeExpired(long maxTokenLifetimeMillis) {
+        long now = System.currentTimeMillis();
+        boolean removed = revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedBefore.values().removeIf(cutoff -> cutoff + maxTokenLifetimeMillis <= now);
+        if (removed) {
+            AtomicLongArray rebuilt = new AtomicLongArray(BLOOM_BITS / 64);
+            for (String tokenId : revokedTokens.keySet()) {
+                addToBloom(rebuilt, tokenId);
+            }
+            bloom = rebuilt;
+            // a revoke() racing with the rebuild may have gone to the old filter only
+            for (String tokenId : revokedTokens.keySet()) {
+                addToBloom(rebuilt, tokenId);
+            }
+        }
+    }
+
+    private static void addToBloom(AtomicLongArray bits, String tokenId) {
+        int h1 = mix(tokenId.hashCode());
+        int h2 = mix(h1) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & (BLOOM_BITS - 1);
+            long mask = 1L << (bit & 63);
+            int word = bit >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private static boolean mightContain(AtomicLongArray bits, String tokenId) {
+        int h1 = mix(tokenId.hashCode());
+        int h2 = mix(h1) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & (BLOOM_BITS - 1);
+            if ((bits.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // murmur3 finalizer, spreads String.hashCode over all bits
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,35 @@
+package com.crud.confg;
+
+import java.time.Instant;
+
+// Immutable record of an issued token, looked up by JwtAuthFilter on every request
+public final class TokenSession {
+
+    private final String token;
+    private final String tokenId;      // jti for signed tokens, the token itself for opaque ones
+    private final String email;
+    private final String role;
+    private final Instant issuedAt;
+    private final Instant expiresAt;   // null for opaque tokens, whose sliding expiry lives in the session store
+
+    public TokenSession(String token, String tokenId, String email, String role, Instant issuedAt, Instant expiresAt) {
+        this.token = token;
+        this.tokenId = tokenId;
+        this.email = email;
+        this.role = role;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getToken() { return token; }
+
+    public String getTokenId() { return tokenId; }
+
+    public String getEmail() { return email; }
+
+    public String getRole() { return role; }
+
+    public Instant getIssuedAt() { return issuedAt; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+}
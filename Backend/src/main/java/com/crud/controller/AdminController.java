@@ -8,21 +8,25 @@ import com.crud.entity.Admin;
 import com.crud.entity.ContactForm;
 import com.crud.entity.PolicyPlan;
 import com.crud.entity.UserPolicy;
+import com.crud.enums.MailPriority;
+import com.crud.enums.OtpPurpose;
+import com.crud.enums.OtpVerification;
 import com.crud.enums.Role;
 import com.crud.service.AdminService;
 import com.crud.service.ContactFormService;
+import com.crud.service.MailDeliveryService;
+import com.crud.service.OtpService;
+import com.crud.service.PasswordHashingService;
 import com.crud.service.UserPolicyService;
+import com.crud.util.MailTemplateRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.security.core.Authentication;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.*;
 
 
@@ -36,9 +40,6 @@ public class AdminController {
     @Autowired
     private ContactFormService contactFormService; // used to find saved contact form
 
-    @Autowired
-    private JavaMailSender mailSender;
-
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -46,7 +47,16 @@ public class AdminController {
     private UserPolicyService userPolicyService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private OtpService otpService;
+
+    @Autowired
+    private MailDeliveryService mailDeliveryService;
+
+    @Autowired
+    private MailTemplateRegistry mailTemplates;
 
 
     public static class LoginRequest {
@@ -130,17 +140,9 @@ public class AdminController {
         }
 
         try {
+            // welcome mail is queued in the outbox together with the admin row
             Admin saved = adminService.registerAdmin(admin);
 
-            // send success email (existing behavior)
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(admin.getEmail());
-            message.setSubject("Congratulations! Your registration has been successfully completed, and you’ve been added as an Admin on our platform.");
-            message.setText("You can now log in using your registered email address \n\n"
-                    + "Email: " + admin.getEmail() + "\n"
-                    + "Login at Footer :Agent login (Login link Here)");
-            mailSender.send(message);
-
             return ResponseEntity.status(HttpStatus.CREATED).body(saved);
         } catch (RuntimeException ex) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
@@ -157,7 +159,7 @@ public class AdminController {
         Admin admin = optionalAdmin.get();
 
         if (admin.getRole() == Role.SUPER_ADMIN) {
-            if (admin.getPassword() == null || !passwordEncoder.matches(request.getPassword(), admin.getPassword())) {
+            if (admin.getPassword() == null || !passwordHashingService.matches(request.getPassword(), admin.getPassword())) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid password");
             }
 
@@ -172,18 +174,15 @@ public class AdminController {
 
             return ResponseEntity.ok(response);
         }
-        String otp = String.format("%06d", new Random().nextInt(1_000_000));
-        admin.setOtp(otp);
-        admin.setOtpGeneratedAt(LocalDateTime.now()); // <-- save timestamp
-        adminService.save(admin);
-
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(admin.getEmail());
-        message.setSubject("Your Login OTP");
-        message.setText("Your OTP is: " + otp + "\n\nNote: This OTP is valid for 1 minute.");
-        mailSender.send(message);
-
-        return ResponseEntity.ok("OTP sent to email");
+        String otp = otpService.issue(OtpPurpose.ADMIN_LOGIN, admin.getEmail()); // held in memory, no row write
+
+        SimpleMailMessage message = mailTemplates.message(admin.getEmail(), "admin-login-otp", Map.of("otp", otp));
+        String deliveryId = mailDeliveryService.submit(message, MailPriority.OTP);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "OTP sent to email");
+        response.put("deliveryId", deliveryId);
+        return ResponseEntity.ok(response);
     }
 
 
@@ -195,33 +194,20 @@ public class AdminController {
 
         Admin admin = optionalAdmin.get();
 
-        if (admin.getOtp() == null || request.getOtp() == null || request.getOtp().trim().isEmpty()) {
+        if (request.getOtp() == null || request.getOtp().trim().isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or missing OTP");
         }
 
-        if (!request.getOtp().equals(admin.getOtp())) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Incorrect OTP");
-        }
-
-        LocalDateTime otpTime = admin.getOtpGeneratedAt();
-        if (otpTime == null) {
-            admin.setOtp(null);
-            admin.setOtpGeneratedAt(null);
-            adminService.save(admin);
+        OtpVerification result = otpService.verify(OtpPurpose.ADMIN_LOGIN, admin.getEmail(), request.getOtp());
+        if (result == OtpVerification.EXPIRED) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("OTP expired. Please request a new OTP.");
         }
-
-        long minutesElapsed = Duration.between(otpTime, LocalDateTime.now()).toMinutes();
-        if (minutesElapsed >= 1) {
-            admin.setOtp(null);
-            admin.setOtpGeneratedAt(null);
-            adminService.save(admin);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("OTP expired. Please request a new OTP.");
+        if (result == OtpVerification.LOCKED) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Too many invalid attempts. Please request a new OTP.");
+        }
+        if (result != OtpVerification.VALID) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Incorrect OTP");
         }
-
-        admin.setOtp(null);
-        admin.setOtpGeneratedAt(null);
-        adminService.save(admin);
 
         String token = jwtUtil.generateToken(admin.getEmail(), admin.getRole().name());
 
@@ -235,6 +221,24 @@ public class AdminController {
         return ResponseEntity.ok(response);
     }
 
+    // Force-logout every session of a user or admin, e.g. after a compromised account.
+    // An ADMIN may only log out their own sessions; other accounts need SUPER_ADMIN.
+    @PostMapping("/revoke-sessions")
+    public ResponseEntity<?> revokeSessions(@RequestBody Map<String, String> request, Authentication authentication) {
+        String email = request.get("email");
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Email is required"));
+        }
+        boolean superAdmin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> ("ROLE_" + Role.SUPER_ADMIN.name()).equals(authority.getAuthority()));
+        if (!superAdmin && !email.trim().equalsIgnoreCase(authentication.getName())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Only a super admin can revoke another account's sessions"));
+        }
+        jwtUtil.revokeAllFor(email.trim());
+        return ResponseEntity.ok(Map.of("message", "All sessions revoked for " + email.trim()));
+    }
+
 
     @GetMapping("/all")
     public ResponseEntity<List<Admin>> getAllAdmins() {
@@ -275,6 +279,7 @@ public class AdminController {
         if (optionalAdmin.isEmpty())
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Admin not found");
         adminService.deleteById(id);
+        jwtUtil.revokeAllFor(optionalAdmin.get().getEmail());
         return ResponseEntity.ok("Admin deleted successfully");
     }
 
@@ -304,7 +309,7 @@ public class AdminController {
     }
     @GetMapping("/pending-policies/{adminId}")
     public ResponseEntity<?> getPendingPoliciesByAdminId(@PathVariable Long adminId) {
-        List<UserPolicy> pendingPolicies = userPolicyService.getPendingPoliciesByAdminId(adminId);
+        List<UserPolicyResponse> pendingPolicies = userPolicyService.getPendingPoliciesByAdminId(adminId);
         if (pendingPolicies.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("No pending user policies found for this admin.");
@@ -314,7 +319,7 @@ public class AdminController {
     }
     @GetMapping("/active-policies/{adminId}")
     public ResponseEntity<?> getActivePoliciesByAdminId(@PathVariable Long adminId) {
-        List<UserPolicy> activePolicies = userPolicyService.getActivePoliciesByAdminId(adminId);
+        List<UserPolicyResponse> activePolicies = userPolicyService.getActivePoliciesByAdminId(adminId);
 
         if (activePolicies.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -1,20 +1,30 @@
 package com.crud.controller;
 
+import com.crud.dto.CursorPage;
 import com.crud.dto.PolicyPlanWithBuyersResponse;
+import com.crud.dto.UserDetailsResponse;
 import com.crud.dto.UserPolicyResponse;
 import com.crud.entity.PolicyPlan;
 import com.crud.service.PolicyPlanservice;
 import com.crud.service.UserPolicyService;
+import com.crud.util.FileResponder;
+import com.crud.util.JsonStreamWriter;
+import com.crud.util.PolicyCatalogCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -27,9 +37,16 @@ public class AdminPolicyController {
     @Autowired
     private PolicyPlanservice policyPlanservice;
 
+    @Autowired
+    private FileResponder fileResponder;
+
 
     private final ObjectMapper mapper = new ObjectMapper();
 
+    // Spring's configured mapper, so exports match the JSON of the normal endpoints
+    @Autowired
+    private ObjectMapper objectMapper;
+
 
     @PostMapping("/{adminId}/policy-plans")
     public ResponseEntity<PolicyPlan> createPolicy(
@@ -63,10 +80,18 @@ public class AdminPolicyController {
     }
 
 
+    // pre-serialized catalog bytes: no query and no JSON mapping per request
     @GetMapping("/policy-plans/all")
-    public ResponseEntity<List<PolicyPlan>> getAllPolicies() {
-        List<PolicyPlan> plans = policyPlanservice.getAllPlans();
-        return ResponseEntity.ok(plans);
+    public ResponseEntity<byte[]> getAllPolicies(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        PolicyCatalogCache.Snapshot catalog = policyPlanservice.getCatalog();
+        if (catalog.getEtag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.getEtag()).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(catalog.getEtag())
+                .body(catalog.getJson());
     }
 
 
@@ -77,21 +102,19 @@ public class AdminPolicyController {
     }
 
     // -------------------- VIEW IMAGE --------------------
+    // ETag / 304 aware, so the catalogue page re-requests images for free
     @GetMapping("/policy-plans/view-image/{planId}")
-    public ResponseEntity<Resource> viewPolicyImage(@PathVariable Long planId) throws IOException {
+    public void viewPolicyImage(@PathVariable Long planId,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
         PolicyPlan plan = policyPlanservice.getPlanById(planId);
         String imagePath = plan.getImageUrl();
-        if (imagePath == null || imagePath.isEmpty()) return ResponseEntity.notFound().build();
-
-        Path filePath = Paths.get(imagePath).normalize();
-        Resource resource = new org.springframework.core.io.UrlResource(filePath.toUri());
-        String contentType = Files.probeContentType(filePath);
-        if (contentType == null) contentType = "application/octet-stream";
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filePath.getFileName() + "\"")
-                .body(resource);
+        if (imagePath == null || imagePath.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // no stored content type for plan images; FileResponder derives it from the extension
+        fileResponder.serve(request, response, imagePath, null, null, false);
     }
 
 
@@ -120,6 +143,32 @@ public class AdminPolicyController {
     public ResponseEntity<PolicyPlanWithBuyersResponse> getPolicyPlanWithBuyers(@PathVariable Long planId) {
         return ResponseEntity.ok(policyPlanservice.getPolicyPlanWithBuyers(planId));
     }
+
+    // Buyers a page at a time: pass the returned nextCursor as "after" for the next page
+    @GetMapping("/{planId}/buyers")
+    public ResponseEntity<CursorPage<UserDetailsResponse>> getPlanBuyers(@PathVariable Long planId,
+                                                                         @RequestParam(required = false) Long after,
+                                                                         @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(policyPlanservice.getPlanBuyers(planId, after, size));
+    }
+
+    // All buyers as NDJSON (one JSON object per line), written while they are read
+    @GetMapping("/{planId}/buyers/export")
+    public ResponseEntity<StreamingResponseBody> exportPlanBuyers(@PathVariable Long planId) {
+        policyPlanservice.getPlanById(planId);   // an unknown plan fails here, before the response starts
+        StreamingResponseBody body = out -> {
+            try (JsonStreamWriter writer = new JsonStreamWriter(objectMapper, out, JsonStreamWriter.Format.NDJSON)) {
+                policyPlanservice.exportPlanBuyers(planId, writer::write);
+                writer.finish();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"plan-" + planId + "-buyers.ndjson\"")
+                .body(body);
+    }
 }
 
 
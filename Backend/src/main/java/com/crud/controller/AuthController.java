@@ -4,11 +4,16 @@ import com.crud.confg.JwtUtil;
 import com.crud.dto.LoginDto;
 import com.crud.dto.OtpRequest;
 import com.crud.entity.User;
+import com.crud.enums.DeliveryStatus;
 import com.crud.service.AuthService;
+import com.crud.service.MailDeliveryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -24,9 +29,27 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private MailDeliveryService mailDeliveryService;
+
+    // Step 1: Check password -> OTP is queued for mailing, response does not wait for SMTP
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginDto request) {
-        return ResponseEntity.ok(authService.login(request.getEmail(), request.getPassword()));
+        String deliveryId = authService.login(request.getEmail(), request.getPassword());
+        return ResponseEntity.ok(Map.of(
+                "message", "OTP sent to email",
+                "deliveryId", deliveryId
+        ));
+    }
+
+    // Lets the client show whether the OTP mail actually went out
+    @GetMapping("/otp-delivery/{deliveryId}")
+    public ResponseEntity<?> otpDeliveryStatus(@PathVariable String deliveryId) {
+        DeliveryStatus status = mailDeliveryService.getStatus(deliveryId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("deliveryId", deliveryId, "status", status.name()));
     }
 
     // Step 2: Verify OTP -> Return JWT
@@ -51,6 +74,18 @@ public class AuthController {
 
     }
 
+    // Logout: the bearer token stops working immediately (works for admin tokens too)
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing bearer token"));
+        }
+        if (!jwtUtil.revoke(authHeader.substring(7))) {
+            return ResponseEntity.status(401).body(Map.of("error", "Token is invalid or already expired"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Logged out"));
+    }
+
     }
 
 
@@ -2,17 +2,14 @@ package com.crud.controller;
 
 import com.crud.entity.ClaimDocument;
 import com.crud.service.ClaimDocumentService;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import com.crud.util.FileResponder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -20,9 +17,11 @@ import java.util.List;
 public class ClaimDocumentController {
 
     private final ClaimDocumentService claimDocumentService;
+    private final FileResponder fileResponder;
 
-    public ClaimDocumentController(ClaimDocumentService claimDocumentService) {
+    public ClaimDocumentController(ClaimDocumentService claimDocumentService, FileResponder fileResponder) {
         this.claimDocumentService = claimDocumentService;
+        this.fileResponder = fileResponder;
     }
 
 
@@ -55,46 +54,33 @@ public class ClaimDocumentController {
 
 
     @GetMapping("/documents/view/{claimDocumentId}")
-    public ResponseEntity<Resource> viewDocument(@PathVariable Long claimDocumentId) {
-        try {
-            ClaimDocument document = claimDocumentService.getClaimDocumentById(claimDocumentId);
-            Path filePath = Paths.get(document.getFilePath()).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (!resource.exists()) return ResponseEntity.notFound().build();
-
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) contentType = "application/pdf";
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filePath.getFileName().toString() + "\"")
-                    .body(resource);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public void viewDocument(@PathVariable Long claimDocumentId,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        serveDocument(claimDocumentId, request, response, false);
     }
 
 
     @GetMapping("/documents/download/{claimDocumentId}")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable Long claimDocumentId) {
-        try {
-            ClaimDocument document = claimDocumentService.getClaimDocumentById(claimDocumentId);
-            Path filePath = Paths.get(document.getFilePath()).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (!resource.exists()) return ResponseEntity.notFound().build();
+    public void downloadDocument(@PathVariable Long claimDocumentId,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        serveDocument(claimDocumentId, request, response, true);
+    }
 
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) contentType = "application/octet-stream";
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filePath.getFileName().toString() + "\"")
-                    .body(resource);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+    private void serveDocument(Long claimDocumentId, HttpServletRequest request,
+                               HttpServletResponse response, boolean attachment) throws IOException {
+        ClaimDocument document;
+        try {
+            document = claimDocumentService.getClaimDocumentById(claimDocumentId);
+        } catch (RuntimeException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+        // documentName is the uploaded file's original name
+        fileResponder.serve(request, response, document.getFilePath(),
+                document.getContentType(), document.getDocumentName(), attachment);
     }
 
 
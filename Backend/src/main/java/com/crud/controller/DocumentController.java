@@ -2,17 +2,16 @@ package com.crud.controller;
 
 import com.crud.entity.Document;
 import com.crud.service.DocumentService;
+import com.crud.util.FileResponder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -22,6 +21,9 @@ public class DocumentController {
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private FileResponder fileResponder;
+
     @PostMapping("/upload")
     public ResponseEntity<?> uploadDocument(
             @RequestParam("file") MultipartFile file,
@@ -63,50 +65,32 @@ public class DocumentController {
         }
     }
 
+    // Range / ETag aware; the body goes out via sendfile (see FileResponder)
     @GetMapping("/view/{documentId}")
-    public ResponseEntity<Resource> viewDocument(@PathVariable Long documentId) {
-        try {
-            Document doc = documentService.getDocumentById(documentId);
-            Resource resource = documentService.loadFileAsResource(documentId);
-
-            Path filePath = Paths.get(doc.getFilePath()).normalize();
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) contentType = "application/octet-stream";
-
-            String filename = java.net.URLEncoder.encode(doc.getOriginalFileName(),
-                    java.nio.charset.StandardCharsets.UTF_8).replaceAll("\\+", "%20");
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename*=UTF-8''" + filename)
-                    .body(resource);
-
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(null);
-        }
+    public void viewDocument(@PathVariable Long documentId,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        serveDocument(documentId, request, response, false);
     }
 
     @GetMapping("/download/{documentId}")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable Long documentId) {
-        try {
-            Document doc = documentService.getDocumentById(documentId);
-            Resource resource = documentService.loadFileAsResource(documentId);
-
-            Path filePath = Paths.get(doc.getFilePath()).normalize();
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) contentType = "application/octet-stream";
-
-            String filename = java.net.URLEncoder.encode(doc.getOriginalFileName(),
-                    java.nio.charset.StandardCharsets.UTF_8).replaceAll("\\+", "%20");
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename*=UTF-8''" + filename)
-                    .body(resource);
+    public void downloadDocument(@PathVariable Long documentId,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        serveDocument(documentId, request, response, true);
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(null);
+    private void serveDocument(Long documentId, HttpServletRequest request,
+                               HttpServletResponse response, boolean attachment) throws IOException {
+        Document doc;
+        try {
+            doc = documentService.getDocumentById(documentId);
+        } catch (RuntimeException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+        fileResponder.serve(request, response, doc.getFilePath(),
+                doc.getContentType(), doc.getOriginalFileName(), attachment);
     }
 
     @PutMapping(value = "/{documentId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -1,15 +1,22 @@
 package com.crud.controller;
 
+import com.crud.dto.CursorPage;
 import com.crud.dto.PurchaseRequest;
 import com.crud.dto.UserPolicyResponse;
 import com.crud.entity.PolicyPlan;
 import com.crud.entity.UserPolicy;
 import com.crud.service.PolicyPlanservice;
 import com.crud.service.UserPolicyService;
+import com.crud.util.JsonStreamWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -22,6 +29,9 @@ public class UserPolicyController {
     @Autowired
     private UserPolicyService userPolicyService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // ✅ ADD THIS METHOD HERE (before any @GetMapping / @PostMapping)
     private UserPolicyResponse mapToResponse(UserPolicy policy) {
         PolicyPlan plan = policy.getPolicyPlan();
@@ -85,22 +95,37 @@ public class UserPolicyController {
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<UserPolicyResponse>> getUserPolicies(@PathVariable Long userId) {
-        List<UserPolicyResponse> policies = userPolicyService.getAllPoliciesByUserId(userId)
-                .stream()
-                .map(this::mapToResponse)
-                .toList();
+        List<UserPolicyResponse> policies = userPolicyService.getAllPoliciesByUserId(userId);
 
         return ResponseEntity.ok(policies);
     }
 
+    // Every policy, written from a database cursor as it is read: the same JSON array as always,
+    // or one policy per line with Accept: application/x-ndjson
     @GetMapping("/all")
-    public ResponseEntity<List<UserPolicyResponse>> getAllPolicies() {
-        List<UserPolicyResponse> policies = userPolicyService.getAllPolicies()
-                .stream()
-                .map(this::mapToResponse)
-                .toList();
+    public ResponseEntity<StreamingResponseBody> getAllPolicies(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(type -> type.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON));
+        JsonStreamWriter.Format format = ndjson ? JsonStreamWriter.Format.NDJSON : JsonStreamWriter.Format.ARRAY;
+        StreamingResponseBody body = out -> {
+            try (JsonStreamWriter writer = new JsonStreamWriter(objectMapper, out, format)) {
+                userPolicyService.exportAllPolicies(writer::write);
+                writer.finish();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 
-        return ResponseEntity.ok(policies);
+    // Policies a page at a time, by id: pass the returned nextCursor as "after" for the next page
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<UserPolicyResponse>> getPolicyPage(@RequestParam(required = false) Long after,
+                                                                        @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(userPolicyService.getPolicyPage(after, size));
     }
 
 
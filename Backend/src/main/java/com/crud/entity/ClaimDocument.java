@@ -18,6 +18,11 @@ public class ClaimDocument {
     private Long fileSize;
 
     private String filePath;
+
+    // SHA-256 of the file in the content store; null for files uploaded before deduplication
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     private LocalDate uploadedDate;
 
     @ManyToOne
@@ -73,6 +78,14 @@ public class ClaimDocument {
         this.filePath = filePath;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public LocalDate getUploadedDate() {
         return uploadedDate;
     }
@@ -0,0 +1,32 @@
+package com.crud.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One stored file, keyed by the SHA-256 of its bytes; refCount = Document + ClaimDocument rows pointing at it
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "content_blob", indexes = {
+        @Index(name = "idx_content_blob_ref_count", columnList = "ref_count")
+})
+public class ContentBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    private LocalDateTime createdAt;
+
+    // when refCount last dropped to zero; the sweeper waits a grace period after this
+    private LocalDateTime releasedAt;
+}
@@ -23,6 +23,10 @@ public class Document {
     @Column(name = "file_path")
     private String filePath;
 
+    // SHA-256 of the file in the content store; null for files uploaded before deduplication
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @ManyToOne
     @JoinColumn(name = "user_id", referencedColumnName = "userId", nullable = false)
     @JsonBackReference
@@ -86,6 +90,14 @@ public class Document {
         this.filePath = filePath;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public User getUser() {
         return user;
     }
@@ -0,0 +1,25 @@
+package com.crud.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A named lease shared by all nodes; whoever moves lockedUntil into the future owns it (see ClusterLock)
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "job_lock")
+public class JobLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "locked_by", length = 128)
+    private String lockedBy;
+}
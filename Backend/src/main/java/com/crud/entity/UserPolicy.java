@@ -10,6 +10,12 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        // buyer listings: plan, then buyer (keyset order)
+        @Index(name = "idx_user_policy_plan_user", columnList = "policy_plan_id, user_id"),
+        // expiry job: ACTIVE rows by end date
+        @Index(name = "idx_user_policy_status_end", columnList = "policy_status, end_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
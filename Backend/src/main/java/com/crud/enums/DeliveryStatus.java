@@ -0,0 +1,12 @@
+package com.crud.enums;
+
+public enum DeliveryStatus {
+
+    QUEUED,
+    SENDING,
+    RETRYING,
+    SENT,
+    FAILED,     // gave up after the last retry
+    REJECTED    // delivery queue was full
+
+}
@@ -0,0 +1,9 @@
+package com.crud.enums;
+
+// Lower ordinal is delivered first
+public enum MailPriority {
+
+    OTP,
+    BULK
+
+}
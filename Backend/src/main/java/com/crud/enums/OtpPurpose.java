@@ -0,0 +1,8 @@
+package com.crud.enums;
+
+public enum OtpPurpose {
+
+    USER_LOGIN,
+    ADMIN_LOGIN
+
+}
@@ -0,0 +1,10 @@
+package com.crud.enums;
+
+public enum OtpVerification {
+
+    VALID,
+    INVALID,
+    EXPIRED,    // never issued, timed out, or already used
+    LOCKED      // too many wrong attempts, a new OTP is required
+
+}
@@ -0,0 +1,10 @@
+package com.crud.enums;
+
+public enum OutboxStatus {
+
+    PENDING,    // waiting for its first attempt or the next retry
+    SENDING,    // claimed by a dispatcher; reclaimed if the lease runs out
+    SENT,
+    DEAD        // gave up after the last retry, kept for inspection
+
+}
@@ -0,0 +1,23 @@
+package com.crud.event;
+
+import java.time.LocalDateTime;
+
+// Published by AdminServiceImpl after a new admin is registered; consumed by SuperAdminNotifier
+public class AdminRegisteredEvent {
+
+    private final String username;
+    private final String email;
+    private final LocalDateTime registeredAt;
+
+    public AdminRegisteredEvent(String username, String email, LocalDateTime registeredAt) {
+        this.username = username;
+        this.email = email;
+        this.registeredAt = registeredAt;
+    }
+
+    public String getUsername() { return username; }
+
+    public String getEmail() { return email; }
+
+    public LocalDateTime getRegisteredAt() { return registeredAt; }
+}
@@ -0,0 +1,27 @@
+package com.crud.event;
+
+import java.time.LocalDateTime;
+
+// Published by DocumentServiceImpl once an upload is stored; consumed by SuperAdminNotifier
+public class DocumentUploadedEvent {
+
+    private final String userName;
+    private final String documentName;
+    private final String originalFileName;
+    private final LocalDateTime uploadedAt;
+
+    public DocumentUploadedEvent(String userName, String documentName, String originalFileName, LocalDateTime uploadedAt) {
+        this.userName = userName;
+        this.documentName = documentName;
+        this.originalFileName = originalFileName;
+        this.uploadedAt = uploadedAt;
+    }
+
+    public String getUserName() { return userName; }
+
+    public String getDocumentName() { return documentName; }
+
+    public String getOriginalFileName() { return originalFileName; }
+
+    public LocalDateTime getUploadedAt() { return uploadedAt; }
+}
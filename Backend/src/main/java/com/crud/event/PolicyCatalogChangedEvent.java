@@ -0,0 +1,13 @@
+package com.crud.event;
+
+// Published by PolicyPlanImpl / StorageMigration whenever a plan is written; consumed by PolicyCatalogCache
+public class PolicyCatalogChangedEvent {
+
+    private final Long planId;
+
+    public PolicyCatalogChangedEvent(Long planId) {
+        this.planId = planId;
+    }
+
+    public Long getPlanId() { return planId; }
+}
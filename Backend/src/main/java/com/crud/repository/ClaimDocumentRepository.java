@@ -1,9 +1,25 @@
 package com.crud.repository;
 
 import com.crud.entity.ClaimDocument;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
+import java.util.Optional;
 
-public interface ClaimDocumentRepository extends JpaRepository<ClaimDocument, Long> {
+public interface ClaimDocumentRepository extends JpaRepository<ClaimDocument, Long>, ClaimDocumentRepositoryCustom {
     List<ClaimDocument> findByClaim_ClaimId(Long claimId);
+
+    // rows still holding an absolute local path instead of a storage key, walked by id (see StorageMigration)
+    List<ClaimDocument> findByFilePathStartingWithAndClaimDocumentIdGreaterThanOrderByClaimDocumentIdAsc(String prefix, Long afterId, Pageable page);
+
+    boolean existsByFilePath(String filePath);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM ClaimDocument d WHERE d.claimDocumentId = :id")
+    Optional<ClaimDocument> lockById(@Param("id") Long id);
 }
@@ -0,0 +1,11 @@
+package com.crud.repository;
+
+import com.crud.entity.ClaimDocument;
+
+import java.util.List;
+
+public interface ClaimDocumentRepositoryCustom {
+
+    // Inserts all rows in one JDBC batch and sets their generated ids
+    void insertAll(List<ClaimDocument> documents);
+}
@@ -0,0 +1,64 @@
+package com.crud.repository;
+
+import com.crud.entity.ClaimDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * IDENTITY ids stop Hibernate from batching inserts, so a claim's documents are written with
+ * plain JDBC instead: one batch, which the driver rewrites into a single multi-row INSERT
+ * (rewriteBatchedStatements=true). Runs on the JPA transaction's connection.
+ */
+public class ClaimDocumentRepositoryCustomImpl implements ClaimDocumentRepositoryCustom {
+
+    private static final String INSERT = "INSERT INTO claim_document "
+            + "(document_name, document_type, content_type, file_size, file_path, content_hash, uploaded_date, claim_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<ClaimDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (ClaimDocument document : documents) {
+                    insert.setString(1, document.getDocumentName());
+                    insert.setString(2, document.getDocumentType());
+                    insert.setString(3, document.getContentType());
+                    if (document.getFileSize() != null) {
+                        insert.setLong(4, document.getFileSize());
+                    } else {
+                        insert.setNull(4, Types.BIGINT);
+                    }
+                    insert.setString(5, document.getFilePath());
+                    insert.setString(6, document.getContentHash());
+                    insert.setDate(7, document.getUploadedDate() != null ? Date.valueOf(document.getUploadedDate()) : null);
+                    insert.setLong(8, document.getClaim().getClaimId());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+
+                // keys come back in insert order
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next()) {
+                        documents.get(i++).setClaimDocumentId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.crud.repository;
+
+import com.crud.entity.ContentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+
+    // Insert-or-increment in one statement; the row lock it takes is held until the caller commits
+    @Modifying
+    @Query(value = "INSERT INTO content_blob (hash, size, ref_count, created_at) VALUES (:hash, :size, 1, :now) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, released_at = NULL", nativeQuery = true)
+    int acquire(@Param("hash") String hash, @Param("size") long size, @Param("now") LocalDateTime now);
+
+    // released_at is set first: MySQL applies SET clauses left to right, standard SQL uses the old row
+    // throughout, and with this order both read the count from before the decrement
+    @Modifying
+    @Query(value = "UPDATE content_blob SET released_at = CASE WHEN ref_count = 1 THEN :now ELSE released_at END, " +
+            "ref_count = ref_count - 1 " +
+            "WHERE hash = :hash AND ref_count > 0", nativeQuery = true)
+    int release(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    // Unreferenced blobs past the grace period; locking them blocks a concurrent acquire of the same hash
+    @Query(value = "SELECT * FROM content_blob WHERE ref_count = 0 AND released_at < :cutoff " +
+            "ORDER BY released_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ContentBlob> lockUnreferenced(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    long countByRefCount(int refCount);
+}
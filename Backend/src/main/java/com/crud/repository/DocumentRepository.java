@@ -1,10 +1,16 @@
 package com.crud.repository;
 
 import com.crud.entity.Document;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
@@ -12,6 +18,15 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     // fetch all documents that belong to a given user id
     List<Document> findAllByUserUserId(Long userId);
 
+    // rows still holding an absolute local path instead of a storage key, walked by id (see StorageMigration)
+    List<Document> findByFilePathStartingWithAndDocumentIdGreaterThanOrderByDocumentIdAsc(String prefix, Long afterId, Pageable page);
+
+    boolean existsByFilePath(String filePath);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Document d WHERE d.documentId = :id")
+    Optional<Document> lockById(@Param("id") Long id);
+
     // If later you want pageable results:
     // Page<Document> findAllByUserUserId(Long userId, Pageable pageable);
 }
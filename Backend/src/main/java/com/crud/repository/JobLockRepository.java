@@ -0,0 +1,28 @@
+package com.crud.repository;
+
+import com.crud.entity.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    // First use of a lock name: create it, already expired
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO job_lock (name, locked_until) VALUES (:name, :now)", nativeQuery = true)
+    int createIfAbsent(@Param("name") String name, @Param("now") LocalDateTime now);
+
+    // Takes the lease if it has run out; the row lock makes concurrent claims take turns, so one wins
+    @Modifying
+    @Query(value = "UPDATE job_lock SET locked_by = :owner, locked_until = :until " +
+            "WHERE name = :name AND locked_until <= :now", nativeQuery = true)
+    int claim(@Param("name") String name, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query(value = "UPDATE job_lock SET locked_until = :now WHERE name = :name AND locked_by = :owner", nativeQuery = true)
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,27 @@
+package com.crud.repository;
+
+import com.crud.entity.MailOutbox;
+import com.crud.enums.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    // Due rows plus rows whose sender's lease ran out; SKIP LOCKED lets several replicas claim side by side
+    @Query(value = "SELECT * FROM mail_outbox " +
+            "WHERE (status = 'PENDING' AND next_attempt_at <= :now) " +
+            "   OR (status = 'SENDING' AND locked_until < :now) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<MailOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByStatus(OutboxStatus status);
+
+    @Modifying
+    @Query("DELETE FROM MailOutbox m WHERE m.status = com.crud.enums.OutboxStatus.SENT AND m.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
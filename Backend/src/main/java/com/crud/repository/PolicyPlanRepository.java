@@ -3,14 +3,26 @@ package com.crud.repository;
 import com.crud.entity.PolicyPlan;
 import com.crud.entity.Admin;
 import com.crud.entity.UserPolicy;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PolicyPlanRepository extends JpaRepository<PolicyPlan, Long> {
     List<PolicyPlan> findByAdmin(Admin admin);
 
+    // plans whose image is still an absolute local path, walked by id (see StorageMigration)
+    List<PolicyPlan> findByImageUrlStartingWithAndIdGreaterThanOrderByIdAsc(String prefix, Long afterId, Pageable page);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PolicyPlan p WHERE p.id = :id")
+    Optional<PolicyPlan> lockById(@Param("id") Long id);
 
 }
@@ -1,27 +1,73 @@
 package com.crud.repository;
 
+import com.crud.dto.UserDetailsResponse;
+import com.crud.dto.UserPolicyResponse;
 import com.crud.entity.UserPolicy;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface UserPolicyRepository extends JpaRepository<UserPolicy, Long> {
 
     Optional<UserPolicy> findByUserId(Long userId);
-    List<UserPolicy> findAllByUserId(Long userId);
 
     List<UserPolicy> findByPolicyPlanId(Long policyPlanId);
 
-    List<UserPolicy> findByPolicyPlan_Admin_IdAndPolicyStatus(Long adminId, String policyStatus);
+    int STREAM_FETCH_SIZE = 1000;
 
+    // Policy listings: each row with its plan's details, in one joined query
+    String POLICY_RESPONSES = "SELECT new com.crud.dto.UserPolicyResponse(up.id, up.userId, up.userName, up.policyStatus, "
+            + "up.startDate, up.endDate, up.nominee, up.nomineeRelation, up.gender, up.dob, up.aadhaarNumber, up.age, "
+            + "pp.id, pp.policyName, pp.policyType, pp.premium, pp.coverage, pp.durationInYears, pp.imageUrl) "
+            + "FROM UserPolicy up JOIN up.policyPlan pp";
 
+    // keyset page: policies after the given id
+    @Query(POLICY_RESPONSES + " WHERE up.id > :afterId ORDER BY up.id")
+    List<UserPolicyResponse> findResponsesAfter(@Param("afterId") Long afterId, Pageable page);
 
+    // every policy, forward-only through a server-side cursor; close it inside the transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(POLICY_RESPONSES + " ORDER BY up.id")
+    Stream<UserPolicyResponse> streamAllResponses();
 
+    @Query(POLICY_RESPONSES + " WHERE up.userId = :userId ORDER BY up.id")
+    List<UserPolicyResponse> findResponsesByUserId(@Param("userId") Long userId);
 
+    @Query(POLICY_RESPONSES + " WHERE pp.admin.id = :adminId AND up.policyStatus = :status ORDER BY up.id")
+    List<UserPolicyResponse> findResponsesByAdminIdAndStatus(@Param("adminId") Long adminId, @Param("status") String status);
 
+    // Buyers of a plan in one joined query, one entry per buyer; UserPolicy.userId is the buyer's UserProfile id
+    String PLAN_BUYERS = "SELECT DISTINCT new com.crud.dto.UserDetailsResponse(p.id, p.name, u.email) "
+            + "FROM UserPolicy up JOIN UserProfile p ON p.id = up.userId LEFT JOIN p.user u "
+            + "WHERE up.policyPlan.id = :planId";
 
+    @Query(PLAN_BUYERS + " ORDER BY p.id")
+    List<UserDetailsResponse> findBuyersByPlanId(@Param("planId") Long planId);
 
+    // keyset page: buyers after the given profile id
+    @Query(PLAN_BUYERS + " AND p.id > :afterId ORDER BY p.id")
+    List<UserDetailsResponse> findBuyersByPlanIdAfter(@Param("planId") Long planId, @Param("afterId") Long afterId, Pageable page);
 
+    // forward-only, read through a server-side cursor (useCursorFetch) a fetch at a time; close it inside the transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(PLAN_BUYERS + " ORDER BY p.id")
+    Stream<UserDetailsResponse> streamBuyersByPlanId(@Param("planId") Long planId);
 
+    // One chunk of the expiry job: up to limit ACTIVE policies that ended before today, found via idx_user_policy_status_end
+    @Modifying
+    @Query(value = "UPDATE user_policy SET policy_status = 'INACTIVE' " +
+            "WHERE policy_status = 'ACTIVE' AND end_date < :today LIMIT :limit", nativeQuery = true)
+    int expireEndedBefore(@Param("today") LocalDate today, @Param("limit") int limit);
 }
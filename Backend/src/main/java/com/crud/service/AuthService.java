@@ -4,6 +4,7 @@ import com.crud.entity.User;
 
 public interface AuthService {
 
+    // Checks the password, issues an OTP and returns the id of its queued delivery
     String login(String email, String password);
 
     User verifyOtp(String email, String otp);
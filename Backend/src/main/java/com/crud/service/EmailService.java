@@ -1,5 +1,10 @@
 package com.crud.service;
 
+import java.util.Map;
+
 public interface EmailService {
     void sendEmail(String to, String subject, String body);
+
+    // renders a named template from MailTemplateRegistry and queues it like sendEmail
+    void sendTemplate(String to, String template, Map<String, ?> model);
 }
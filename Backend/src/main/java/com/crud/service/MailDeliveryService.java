@@ -0,0 +1,14 @@
+package com.crud.service;
+
+import com.crud.enums.DeliveryStatus;
+import com.crud.enums.MailPriority;
+import org.springframework.mail.SimpleMailMessage;
+
+public interface MailDeliveryService {
+
+    // Queues the message and returns a delivery id immediately; SMTP happens on the delivery pool
+    String submit(SimpleMailMessage message, MailPriority priority);
+
+    // Status of a recent delivery, or null once it has aged out / was never submitted
+    DeliveryStatus getStatus(String deliveryId);
+}
@@ -0,0 +1,13 @@
+package com.crud.service;
+
+import com.crud.enums.OtpPurpose;
+import com.crud.enums.OtpVerification;
+
+public interface OtpService {
+
+    // Issues a fresh 6-digit OTP for the email, replacing any earlier one for the same purpose
+    String issue(OtpPurpose purpose, String email);
+
+    // Checks the OTP; a VALID result consumes it so it cannot be used twice
+    OtpVerification verify(OtpPurpose purpose, String email, String otp);
+}
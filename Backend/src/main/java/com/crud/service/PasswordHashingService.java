@@ -0,0 +1,10 @@
+package com.crud.service;
+
+public interface PasswordHashingService {
+
+    // BCrypt-hashes the raw password on the hashing pool
+    String hash(String rawPassword);
+
+    // Checks a raw password against a stored hash on the hashing pool
+    boolean matches(String rawPassword, String encodedPassword);
+}
@@ -1,11 +1,16 @@
 package com.crud.service;
 
+import com.crud.dto.CursorPage;
 import com.crud.dto.PolicyPlanRequest;
+import com.crud.dto.PolicyPlanResponse;
 import com.crud.dto.PolicyPlanWithBuyersResponse;
+import com.crud.dto.UserDetailsResponse;
 import com.crud.entity.PolicyPlan;
+import com.crud.util.PolicyCatalogCache;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PolicyPlanservice {
 
@@ -17,7 +22,11 @@ public interface PolicyPlanservice {
 
     List<PolicyPlan> getPlansByAdmin(Long adminId);
 
-    List<PolicyPlan> getAllPlans();
+    // served from the in-memory catalog; the plans are shared and must not be modified
+    List<PolicyPlanResponse> getAllPlans();
+
+    // the same catalog, already serialized to JSON
+    PolicyCatalogCache.Snapshot getCatalog();
 
     PolicyPlan getPlanById(Long planId);
 
@@ -29,4 +38,10 @@ public interface PolicyPlanservice {
     PolicyPlan updatePolicyWithImage(Long planId, MultipartFile file, String policyJson, Long adminId) throws Exception;
 
     PolicyPlanWithBuyersResponse getPolicyPlanWithBuyers(Long planId);
+
+    // buyers ordered by user id, size per page capped; pass the previous page's nextCursor as after
+    CursorPage<UserDetailsResponse> getPlanBuyers(Long planId, Long after, int size);
+
+    // every buyer of the plan, one at a time, without building the list (no check that the plan exists)
+    void exportPlanBuyers(Long planId, Consumer<UserDetailsResponse> sink);
 }
@@ -1,20 +1,29 @@
 package com.crud.service;
 
+import com.crud.dto.CursorPage;
 import com.crud.dto.PurchaseRequest;
+import com.crud.dto.UserPolicyResponse;
 import com.crud.entity.UserPolicy;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserPolicyService {
 
     UserPolicy purchasePolicy(PurchaseRequest request);
     UserPolicy getPolicyByUserId(Long userId);
-    List<UserPolicy> getAllPoliciesByUserId(Long userId);
+    List<UserPolicyResponse> getAllPoliciesByUserId(Long userId);
 
     List<UserPolicy> getAllPolicies();
 
+    // policies ordered by id, size per page capped; pass the previous page's nextCursor as after
+    CursorPage<UserPolicyResponse> getPolicyPage(Long after, int size);
+
+    // every policy with its plan details, one at a time, without building the list
+    void exportAllPolicies(Consumer<UserPolicyResponse> sink);
+
     UserPolicy updatePolicy(Long policyId, UserPolicy updatedPolicy);
 
     void deletePolicy(Long policyId);
@@ -23,9 +32,9 @@ public interface UserPolicyService {
 
     UserPolicy updateNomineeDetails(Long policyId, String nominee, String nomineeRelation);
 
-    List<UserPolicy> getPendingPoliciesByAdminId(Long adminId);
+    List<UserPolicyResponse> getPendingPoliciesByAdminId(Long adminId);
 
-    List<UserPolicy> getActivePoliciesByAdminId(Long adminId);
+    List<UserPolicyResponse> getActivePoliciesByAdminId(Long adminId);
 
 
 
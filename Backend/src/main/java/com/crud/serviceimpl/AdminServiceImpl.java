@@ -3,14 +3,19 @@ package com.crud.serviceimpl;
 import com.crud.entity.Admin;
 import com.crud.entity.UserPolicy;
 import com.crud.enums.Role;
+import com.crud.event.AdminRegisteredEvent;
 import com.crud.repository.AdminRepository;
 import com.crud.service.AdminService;
+import com.crud.service.EmailService;
 import com.crud.service.UserPolicyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -20,15 +25,28 @@ public class AdminServiceImpl implements AdminService {
     private AdminRepository adminRepository;
     @Autowired
     private UserPolicyService userPolicyService;
+    @Autowired
+    private EmailService emailService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private PolicyExpiryJob policyExpiryJob;
 
+    // the welcome mail is queued in the same transaction as the new admin row
     @Override
+    @Transactional
     public Admin registerAdmin(Admin admin) {
         Optional<Admin> existing = adminRepository.findByEmail(admin.getEmail());
         if (existing.isPresent()) {
             throw new RuntimeException("Admin with email already exists");
         }
         admin.setRole(Role.ADMIN);
-        return adminRepository.save(admin);
+        Admin saved = adminRepository.save(admin);
+
+        emailService.sendTemplate(admin.getEmail(), "admin-welcome", Map.of("email", admin.getEmail()));
+
+        eventPublisher.publishEvent(new AdminRegisteredEvent(saved.getUsername(), saved.getEmail(), LocalDateTime.now()));
+        return saved;
     }
 
     @Override
@@ -81,16 +99,10 @@ public class AdminServiceImpl implements AdminService {
         return userPolicyService.updateNomineeDetails(policyId, nominee, nomineeRelation);
     }
 
+    // runs the scheduled job now (set-based, one node at a time)
     @Override
     public void expireExpiredPolicies() {
-        List<UserPolicy> activePolicies = userPolicyService.getAllPolicies();
-        for (UserPolicy policy : activePolicies) {
-            if (policy.getEndDate().isBefore(LocalDate.now()) &&
-                    "ACTIVE".equalsIgnoreCase(policy.getPolicyStatus())) {
-                policy.setPolicyStatus("INACTIVE");
-                userPolicyService.updatePolicy(policy.getId(), policy);
-            }
-        }
+        policyExpiryJob.run();
     }
 
 
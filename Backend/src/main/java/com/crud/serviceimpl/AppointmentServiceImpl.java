@@ -11,8 +11,11 @@ import com.crud.service.AppointmentService;
 import com.crud.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class AppointmentServiceImpl implements AppointmentService {
@@ -29,7 +32,9 @@ public class AppointmentServiceImpl implements AppointmentService {
     @Autowired
     private EmailService emailService;
 
+    // the doctor's notification is queued in the same transaction as the booking
     @Override
+    @Transactional
     public Appointment bookAppointment(AppointmentRequest request) {
 
         Doctor doctor = doctorRepository.findById(request.getDoctorId())
@@ -65,19 +70,17 @@ public class AppointmentServiceImpl implements AppointmentService {
             patientEmail = userProfile.getUser().getEmail();
         }
 
-        //  Send email to doctor
-        String subject = "New Appointment Booking Alert";
-        String body = "Hello " + doctor.getDoctorName() + ",\n\n" +
-                "A new appointment has been booked by the user:\n\n" +
-                "Name: " + userProfile.getName() + "\n" +
-                "Email: " + patientEmail + "\n" +
-                "Phone: " + (userProfile.getPhone() != null ? userProfile.getPhone() : "N/A") + "\n" +
-                "Appointment Date: " + request.getAppointmentDate() + "\n\n" +
-                "Regards,\nClinic Management System";
+        //  Send email to doctor (mail-templates/appointment-booked)
+        Map<String, Object> model = new HashMap<>();
+        model.put("doctorName", doctor.getDoctorName());
+        model.put("patientName", userProfile.getName());
+        model.put("patientEmail", patientEmail);
+        model.put("patientPhone", userProfile.getPhone() != null ? userProfile.getPhone() : "N/A");
+        model.put("appointmentDate", request.getAppointmentDate());
 
         // only attempt to send if doctor's email is present
         if (doctor.getEmail() != null && !doctor.getEmail().trim().isEmpty()) {
-            emailService.sendEmail(doctor.getEmail(), subject, body);
+            emailService.sendTemplate(doctor.getEmail(), "appointment-booked", model);
         } else {
             // optional: log warning that doctor has no email
         }
@@ -1,21 +1,24 @@
 package com.crud.serviceimpl;
 
 import com.crud.entity.User;
+import com.crud.enums.MailPriority;
+import com.crud.enums.OtpPurpose;
+import com.crud.enums.OtpVerification;
 import com.crud.repository.UserRepository;
 import com.crud.service.AuthService;
+import com.crud.service.MailDeliveryService;
+import com.crud.service.PasswordHashingService;
+import com.crud.service.OtpService;
+import com.crud.util.MailTemplateRegistry;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.Map;
-import java.util.Random;
 
 @Service
 public class AuthServiceimpl implements AuthService {
@@ -24,52 +27,51 @@ public class AuthServiceimpl implements AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private JavaMailSender mailSender;
+    private MailDeliveryService mailDeliveryService;
+
+    @Autowired
+    private OtpService otpService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private MailTemplateRegistry mailTemplates;
 
 
     public String login(String email, String password) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!new BCryptPasswordEncoder().matches(password, user.getPassword())) {
+        if (!passwordHashingService.matches(password, user.getPassword())) {
             throw new RuntimeException("Invalid password");
         }
 
-        String otp = String.valueOf(new Random().nextInt(899999) + 100000); // 6-digit OTP
-
-        user.setOtp(otp);
-        user.setOtpVerified(false);
-        user.setOtpGeneratedAt(LocalDateTime.now());
-        userRepository.save(user);
+        String otp = otpService.issue(OtpPurpose.USER_LOGIN, email); // 6-digit OTP, held in memory
 
-        sendOtpEmail(email, otp);
-        return "OTP sent to email";
+        return sendOtpEmail(email, otp);
     }
 
     public User verifyOtp(String email, String otp) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-
-        if (user.getOtpGeneratedAt() == null ||
-                user.getOtpGeneratedAt().plusMinutes(1).isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("OTP expired");
+        OtpVerification result = otpService.verify(OtpPurpose.USER_LOGIN, email, otp);
+        switch (result) {
+            case VALID:
+                break;
+            case EXPIRED:
+                throw new RuntimeException("OTP expired");
+            case LOCKED:
+                throw new RuntimeException("Too many invalid attempts. Please request a new OTP.");
+            default:
+                throw new RuntimeException("Invalid OTP");
         }
 
-        if (user.getOtp().equals(otp)) {
-            user.setOtpVerified(true);
-            userRepository.save(user);
-            return user;
-        } else {
-            throw new RuntimeException("Invalid OTP");
-        }
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
-    private void sendOtpEmail(String to, String otp) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject("Your Login OTP");
-        message.setText("Your OTP is: " + otp);
-        mailSender.send(message);
+    // queued on the mail delivery pool; the request does not wait for SMTP
+    private String sendOtpEmail(String to, String otp) {
+        SimpleMailMessage message = mailTemplates.message(to, "user-login-otp", Map.of("otp", otp));
+        return mailDeliveryService.submit(message, MailPriority.OTP);
     }
 }
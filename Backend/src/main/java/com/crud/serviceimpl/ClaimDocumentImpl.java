@@ -5,27 +5,36 @@ import com.crud.entity.ClaimDocument;
 import com.crud.repository.ClaimDocumentRepository;
 import com.crud.repository.ClaimRepository;
 import com.crud.service.ClaimDocumentService;
+import com.crud.util.ContentStore;
+import com.crud.util.StoredBlob;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 public class ClaimDocumentImpl implements ClaimDocumentService {
 
     private final ClaimRepository claimRepository;
     private final ClaimDocumentRepository claimDocumentRepository;
-
-    // Upload directory
-    private final String uploadDir = System.getProperty("user.home") + "/uploads/";
+    private final ContentStore contentStore;
 
     // Allowed file types (ONLY pdf + images)
     private static final Set<String> ALLOWED_CONTENT_TYPES = Set.of(
@@ -37,12 +46,28 @@ public class ClaimDocumentImpl implements ClaimDocumentService {
 
     private static final long MAX_FILE_SIZE_BYTES = 2L * 1024L * 1024L;
 
-    public ClaimDocumentImpl(ClaimRepository claimRepository, ClaimDocumentRepository claimDocumentRepository) {
+    // Bounded pool for the file I/O of multi-file uploads; when it is full the request thread does the work itself
+    private final ThreadPoolExecutor uploadExecutor;
+
+    public ClaimDocumentImpl(ClaimRepository claimRepository, ClaimDocumentRepository claimDocumentRepository,
+                             ContentStore contentStore,
+                             @Value("${storage.upload.threads:8}") int uploadThreads,
+                             @Value("${storage.upload.queue-capacity:64}") int uploadQueueCapacity) {
         this.claimRepository = claimRepository;
         this.claimDocumentRepository = claimDocumentRepository;
+        this.contentStore = contentStore;
+        this.uploadExecutor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(uploadQueueCapacity), new CustomizableThreadFactory("claim-upload-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        uploadExecutor.shutdown();
     }
 
     @Override
+    @Transactional
     public ClaimDocument uploadClaimDocument(Long claimId, MultipartFile file, String documentType) throws IOException {
 
         Claim claim = claimRepository.findById(claimId)
@@ -50,61 +75,62 @@ public class ClaimDocumentImpl implements ClaimDocumentService {
 
         validateFile(file);
 
-        Path dirPath = Paths.get(uploadDir);
-        Files.createDirectories(dirPath);
-
-        String fileName = UUID.randomUUID() + "_" + sanitizeFilename(file.getOriginalFilename());
-        Path filePath = dirPath.resolve(fileName);
-
-        Files.write(filePath, file.getBytes());
-
-        ClaimDocument doc = new ClaimDocument();
-        doc.setDocumentName(file.getOriginalFilename());
-        doc.setDocumentType(documentType);
-        doc.setContentType(normalizeContentType(file.getContentType()));
-        doc.setFileSize(file.getSize());
-        doc.setFilePath(filePath.toString());
-        doc.setUploadedDate(LocalDate.now());
-        doc.setClaim(claim);
-
-        return claimDocumentRepository.save(doc);
+        return claimDocumentRepository.save(storeFile(claim, file, documentType));
     }
 
+    /**
+     * All or nothing: every file is checked and hashed in parallel on the upload pool, then
+     * the content references are taken and the blobs written (again in parallel), and the
+     * rows go in as one batched INSERT. If any file fails, nothing is committed and every
+     * staged temp file is removed, so the claim never ends up with half its documents.
+     */
     @Override
+    @Transactional
     public List<ClaimDocument> uploadMultipleClaimDocuments(Long claimId, MultipartFile[] files, String[] documentTypes) throws IOException {
 
         Claim claim = claimRepository.findById(claimId)
                 .orElseThrow(() -> new RuntimeException("Claim not found"));
 
-        Path dirPath = Paths.get(uploadDir);
-        Files.createDirectories(dirPath);
-
-        List<ClaimDocument> documents = new ArrayList<>();
-
-        for (int i = 0; i < files.length; i++) {
-            MultipartFile file = files[i];
-            String documentType = (documentTypes != null && documentTypes.length > i) ? documentTypes[i] : null;
-
+        // cheap header checks first, before any bytes are read
+        for (MultipartFile file : files) {
             validateFile(file);
+        }
 
-            String fileName = UUID.randomUUID() + "_" + sanitizeFilename(file.getOriginalFilename());
-            Path filePath = dirPath.resolve(fileName);
-
-            Files.write(filePath, file.getBytes());
-
-            ClaimDocument doc = new ClaimDocument();
-            doc.setDocumentName(file.getOriginalFilename());
-            doc.setDocumentType(documentType);
-            doc.setContentType(normalizeContentType(file.getContentType()));
-            doc.setFileSize(file.getSize());
-            doc.setFilePath(filePath.toString());
-            doc.setUploadedDate(LocalDate.now());
-            doc.setClaim(claim);
-
-            documents.add(claimDocumentRepository.save(doc));
+        List<Future<ContentStore.Staged>> staging = new ArrayList<>(files.length);
+        for (MultipartFile file : files) {
+            staging.add(uploadExecutor.submit(() -> {
+                try (InputStream in = file.getInputStream()) {
+                    return contentStore.stage(in, normalizeContentType(file.getContentType()), MAX_FILE_SIZE_BYTES);
+                }
+            }));
         }
+        List<ContentStore.Staged> staged = awaitAll(staging, contentStore::discard);
 
-        return documents;
+        try {
+            contentStore.acquire(staged);
+
+            List<Future<StoredBlob>> publishing = new ArrayList<>(staged.size());
+            for (ContentStore.Staged upload : staged) {
+                publishing.add(uploadExecutor.submit(() -> contentStore.publish(upload)));
+            }
+            // blobs this call wrote are deleted again before the rollback releases acquire's row locks
+            List<StoredBlob> blobs = awaitAll(publishing, contentStore::unpublish);
+
+            List<ClaimDocument> documents = new ArrayList<>(files.length);
+            for (int i = 0; i < files.length; i++) {
+                String documentType = (documentTypes != null && documentTypes.length > i) ? documentTypes[i] : null;
+                documents.add(newDocument(claim, files[i], documentType, blobs.get(i)));
+            }
+            try {
+                claimDocumentRepository.insertAll(documents);
+            } catch (RuntimeException e) {
+                blobs.forEach(contentStore::unpublish);
+                throw e;
+            }
+            return documents;
+        } finally {
+            staged.forEach(contentStore::discard);
+        }
     }
 
     @Override
@@ -119,17 +145,21 @@ public class ClaimDocumentImpl implements ClaimDocumentService {
     }
 
     @Override
+    @Transactional
     public void deleteClaimDocumentById(Long claimDocumentId) {
 
         ClaimDocument document = claimDocumentRepository.findById(claimDocumentId)
                 .orElseThrow(() -> new RuntimeException("Document not found with ID: " + claimDocumentId));
 
-        Path filePath = Paths.get(document.getFilePath());
-
-        try {
-            Files.deleteIfExists(filePath);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to delete file from disk", e);
+        if (document.getContentHash() != null) {
+            contentStore.release(document.getContentHash());
+        } else {
+            // uploaded before deduplication: the file is this row's alone
+            try {
+                Files.deleteIfExists(Paths.get(document.getFilePath()));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete file from disk", e);
+            }
         }
 
         claimDocumentRepository.delete(document);
@@ -138,6 +168,67 @@ public class ClaimDocumentImpl implements ClaimDocumentService {
 
 
 
+    // Streams the upload into the content store (identical files are kept once); type (magic bytes)
+    // and size are re-checked on the actual content
+    private ClaimDocument storeFile(Claim claim, MultipartFile file, String documentType) throws IOException {
+        StoredBlob blob;
+        try (InputStream in = file.getInputStream()) {
+            blob = contentStore.store(in, normalizeContentType(file.getContentType()), MAX_FILE_SIZE_BYTES);
+        }
+        return newDocument(claim, file, documentType, blob);
+    }
+
+    private ClaimDocument newDocument(Claim claim, MultipartFile file, String documentType, StoredBlob blob) {
+        ClaimDocument doc = new ClaimDocument();
+        doc.setDocumentName(file.getOriginalFilename());
+        doc.setDocumentType(documentType);
+        doc.setContentType(normalizeContentType(file.getContentType()));
+        doc.setFileSize(blob.getSize());
+        doc.setFilePath(blob.getKey());
+        doc.setContentHash(blob.getHash());
+        doc.setUploadedDate(LocalDate.now());
+        doc.setClaim(claim);
+        return doc;
+    }
+
+    /**
+     * Waits for every task, even after one fails, so nothing is still writing when the caller
+     * cleans up. On failure the successful results are passed to {@code undo} and the first
+     * error is rethrown.
+     */
+    private static <T> List<T> awaitAll(List<Future<T>> futures, Consumer<T> undo) throws IOException {
+        List<T> results = new ArrayList<>(futures.size());
+        Throwable failure = null;
+        boolean interrupted = false;
+        for (Future<T> future : futures) {
+            while (true) {
+                try {
+                    results.add(future.get());
+                    break;
+                } catch (ExecutionException e) {
+                    failure = failure != null ? failure : e.getCause();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;   // keep waiting; the flag is restored below
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure == null) {
+            return results;
+        }
+        results.forEach(undo);
+        if (failure instanceof IOException io) {
+            throw io;
+        }
+        if (failure instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        throw new RuntimeException("Upload failed", failure);
+    }
+
     private void validateFile(MultipartFile file) {
 
         if (file == null || file.isEmpty()) {
@@ -159,9 +250,4 @@ public class ClaimDocumentImpl implements ClaimDocumentService {
         if (contentType == null) return null;
         return contentType.toLowerCase().trim();
     }
-
-    private String sanitizeFilename(String original) {
-        if (original == null) return "file";
-        return original.replaceAll("[^a-zA-Z0-9\\.\\-_]", "_");
-    }
 }
@@ -1,29 +1,33 @@
 package com.crud.serviceimpl;
 
-import com.crud.entity.Admin;
 import com.crud.entity.Document;
 import com.crud.entity.User;
-import com.crud.enums.Role;
-import com.crud.repository.AdminRepository;
+import com.crud.event.DocumentUploadedEvent;
 import com.crud.repository.DocumentRepository;
 import com.crud.repository.UserRepository;
 import com.crud.service.DocumentService;
-import com.crud.service.EmailService;
+import com.crud.util.BlobKeys;
+import com.crud.util.BlobStore;
+import com.crud.util.ContentStore;
+import com.crud.util.StoredBlob;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 
 @Service
 public class DocumentServiceImpl implements DocumentService {
@@ -35,12 +39,13 @@ public class DocumentServiceImpl implements DocumentService {
     private UserRepository userRepository;
 
     @Autowired
-    private AdminRepository adminRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    private EmailService emailService;
+    private ContentStore contentStore;
 
-    private final String uploadDir = System.getProperty("user.dir") + File.separator + "uploads" + File.separator;
+    @Autowired
+    private BlobStore blobStore;
 
     private static final Set<String> ALLOWED_CONTENT_TYPES = Set.of(
             "application/pdf",
@@ -52,21 +57,12 @@ public class DocumentServiceImpl implements DocumentService {
     private static final long MAX_FILE_SIZE_BYTES = 2L * 1024L * 1024L;
 
     @Override
+    @Transactional
     public Document storeFile(MultipartFile file, Long userId, String documentName) {
         try {
 
-            File dir = new File(uploadDir);
-            if (!dir.exists() && !dir.mkdirs()) {
-                throw new RuntimeException("Failed to create upload directory at: " + dir.getAbsolutePath());
-            }
-
             validateFile(file);
 
-            String fileName = UUID.randomUUID() + "_" + sanitizeFilename(file.getOriginalFilename());
-            String fullPath = uploadDir + fileName;
-
-            file.transferTo(new File(fullPath));
-
             User user = userRepository.findById(userId)
                     .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
 
@@ -75,26 +71,18 @@ public class DocumentServiceImpl implements DocumentService {
             document.setDocumentName(documentName);
             document.setOriginalFileName(file.getOriginalFilename());
             document.setUploadedAt(LocalDateTime.now());
-            document.setFilePath(fullPath);
             document.setContentType(normalizeContentType(file.getContentType()));
-            document.setFileSize(file.getSize());
+            setContent(document, file);
 
             Document savedDoc = documentRepository.save(document);
 
-            // notify super admin (if exists)
-            List<Admin> superAdmins = adminRepository.findByRole(Role.SUPER_ADMIN);
-            if (!superAdmins.isEmpty()) {
-                String superAdminEmail = superAdmins.get(0).getEmail();
-                String subject = "Document Uploaded Successfully";
-                String text = String.format(
-                        "User '%s' uploaded a document.\nDocument Name: %s\nOriginal File: %s\nTime: %s",
-                        user.getUserName(),
-                        documentName,
-                        file.getOriginalFilename(),
-                        LocalDateTime.now()
-                );
-                emailService.sendEmail(superAdminEmail, subject, text);
-            }
+            // super admin hears about it in the next digest (see SuperAdminNotifier)
+            eventPublisher.publishEvent(new DocumentUploadedEvent(
+                    user.getUserName(),
+                    documentName,
+                    file.getOriginalFilename(),
+                    savedDoc.getUploadedAt()
+            ));
 
             return savedDoc;
 
@@ -115,6 +103,7 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     @Override
+    @Transactional
     public Document updateDocument(Long documentId, MultipartFile file, String documentName) {
         try {
             Document existingDoc = getDocumentById(documentId);
@@ -124,20 +113,17 @@ public class DocumentServiceImpl implements DocumentService {
             }
 
             if (file != null && !file.isEmpty()) {
-                File oldFile = new File(existingDoc.getFilePath());
-                if (oldFile.exists()) oldFile.delete();
-
                 validateFile(file);
 
-                String fileName = UUID.randomUUID() + "_" + sanitizeFilename(file.getOriginalFilename());
-                String fullPath = uploadDir + fileName;
-                file.transferTo(new File(fullPath));
+                String oldHash = existingDoc.getContentHash();
+                String oldPath = existingDoc.getFilePath();
 
-                existingDoc.setFilePath(fullPath);
+                existingDoc.setContentType(normalizeContentType(file.getContentType()));
+                setContent(existingDoc, file);
                 existingDoc.setOriginalFileName(file.getOriginalFilename());
                 existingDoc.setUploadedAt(LocalDateTime.now());
-                existingDoc.setContentType(normalizeContentType(file.getContentType()));
-                existingDoc.setFileSize(file.getSize());
+
+                releaseContent(oldHash, oldPath);
             }
 
             return documentRepository.save(existingDoc);
@@ -148,26 +134,33 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     @Override
+    @Transactional
     public void deleteDocument(Long documentId) {
         Document existingDoc = getDocumentById(documentId);
-        File file = new File(existingDoc.getFilePath());
-        if (file.exists()) file.delete();
+        releaseContent(existingDoc.getContentHash(), existingDoc.getFilePath());
         documentRepository.delete(existingDoc);
     }
 
     @Override
     public Resource loadFileAsResource(Long documentId) {
         Document doc = getDocumentById(documentId);
+        String location = doc.getFilePath();
         try {
-            Path filePath = Paths.get(doc.getFilePath()).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
+            Optional<Path> local = BlobKeys.isLegacyPath(location)
+                    ? Optional.of(Paths.get(location).normalize())
+                    : blobStore.localPath(location);
+            if (local.isEmpty()) {
+                // remote store: streamed from the bucket
+                return new InputStreamResource(blobStore.get(location, 0, doc.getFileSize()));
+            }
+            Resource resource = new UrlResource(local.get().toUri());
             if (resource.exists() && resource.isReadable()) {
                 return resource;
             } else {
-                throw new RuntimeException("File not found or not readable: " + filePath);
+                throw new RuntimeException("File not found or not readable: " + location);
             }
-        } catch (MalformedURLException e) {
-            throw new RuntimeException("File not found: " + doc.getFilePath(), e);
+        } catch (IOException e) {
+            throw new RuntimeException("File not found: " + location, e);
         }
     }
 
@@ -180,6 +173,27 @@ public class DocumentServiceImpl implements DocumentService {
         return documentRepository.findAllByUserUserId(userId);
     }
 
+    // Identical files are stored once (see ContentStore); the row keeps the shared path and its hash
+    private void setContent(Document document, MultipartFile file) throws IOException {
+        StoredBlob blob;
+        try (InputStream in = file.getInputStream()) {
+            blob = contentStore.store(in, document.getContentType(), MAX_FILE_SIZE_BYTES);
+        }
+        document.setContentHash(blob.getHash());
+        document.setFilePath(blob.getKey());
+        document.setFileSize(blob.getSize());
+    }
+
+    private void releaseContent(String contentHash, String filePath) {
+        if (contentHash != null) {
+            contentStore.release(contentHash);
+        } else if (filePath != null) {
+            // uploaded before deduplication: the file is this row's alone
+            File file = new File(filePath);
+            if (file.exists()) file.delete();
+        }
+    }
+
     private void validateFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new RuntimeException("Uploaded file is empty");
@@ -199,9 +213,4 @@ public class DocumentServiceImpl implements DocumentService {
         if (contentType == null) return null;
         return contentType.toLowerCase().trim();
     }
-
-    private String sanitizeFilename(String original) {
-        if (original == null) return "file";
-        return original.replaceAll("[^a-zA-Z0-9\\.\\-_]", "_");
-    }
 }
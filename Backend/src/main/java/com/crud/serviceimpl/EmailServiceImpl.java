@@ -1,29 +1,32 @@
 package com.crud.serviceimpl;
 
+import com.crud.entity.MailOutbox;
+import com.crud.repository.MailOutboxRepository;
 import com.crud.service.EmailService;
+import com.crud.util.MailTemplateRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 @Service
 public class EmailServiceImpl implements EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private MailOutboxRepository outboxRepository;
+
+    @Autowired
+    private MailTemplateRegistry mailTemplates;
 
+    // Only records the mail; it commits (or rolls back) with the caller's transaction
+    // and MailOutboxDispatcher sends it afterwards
     @Override
     public void sendEmail(String to, String subject, String body) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            mailSender.send(message);
-            System.out.println("Email sent successfully to: " + to);
-        } catch (Exception e) {
-            System.err.println("❌ Failed to send email to: " + to);
-            e.printStackTrace();
-        }
+        outboxRepository.save(new MailOutbox(to, subject, body));
+    }
+
+    @Override
+    public void sendTemplate(String to, String template, Map<String, ?> model) {
+        sendEmail(to, mailTemplates.renderSubject(template, model), mailTemplates.renderBody(template, model));
     }
 }
@@ -0,0 +1,215 @@
+package com.crud.serviceimpl;
+
+import com.crud.enums.DeliveryStatus;
+import com.crud.enums.MailPriority;
+import com.crud.service.MailDeliveryService;
+import com.crud.util.ExpiringCache;
+import com.crud.util.SmtpConnectionPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends mail off the request thread on a small dedicated pool.
+ *
+ * The pool drains a priority queue, so OTP mails overtake queued bulk notifications.
+ * The queue is bounded by a pending counter: bulk mail may use at most three quarters of
+ * it, which keeps room for OTPs when notifications pile up. Failed sends are retried
+ * with exponential backoff before the delivery is marked FAILED.
+ */
+@Service
+public class MailDeliveryServiceImpl implements MailDeliveryService {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDeliveryServiceImpl.class);
+
+    @Value("${mail.delivery.threads:2}")
+    private int threads;
+
+    @Value("${mail.delivery.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${mail.delivery.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${mail.delivery.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Autowired
+    private SmtpConnectionPool smtpPool;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService retryScheduler;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // recent deliveries by id, kept long enough for a client to poll the status
+    private final ExpiringCache<String, Delivery> deliveries =
+            new ExpiringCache<>("mail.deliveries", Duration.ofMinutes(15), false, 50_000, Duration.ofSeconds(5));
+
+    private Counter sentCounter;
+    private Counter failedCounter;
+    private Counter retriedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), new CustomizableThreadFactory("mail-delivery-"));
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("mail-retry-"));
+
+        Gauge.builder("mail.delivery.pending", pending, AtomicInteger::get)
+                .description("Mails queued, sending or waiting for a retry")
+                .register(meterRegistry);
+        sentCounter = counter("sent");
+        failedCounter = counter("failed");
+        retriedCounter = counter("retried");
+        rejectedCounter = counter("rejected");
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String submit(SimpleMailMessage message, MailPriority priority) {
+        Delivery delivery = new Delivery(UUID.randomUUID().toString(), message, priority, sequence.incrementAndGet());
+        deliveries.put(delivery.id, delivery);
+
+        int limit = priority == MailPriority.OTP ? queueCapacity : queueCapacity * 3 / 4;
+        if (pending.incrementAndGet() > limit) {
+            pending.decrementAndGet();
+            delivery.status = DeliveryStatus.REJECTED;
+            rejectedCounter.increment();
+            log.warn("Mail queue full, rejected {} mail to {}", priority, recipients(message));
+            return delivery.id;
+        }
+
+        executor.execute(delivery);
+        return delivery.id;
+    }
+
+    @Override
+    public DeliveryStatus getStatus(String deliveryId) {
+        Delivery delivery = deliveries.get(deliveryId);
+        return delivery == null ? null : delivery.status;
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    public void evictExpiredStatuses() {
+        deliveries.evictExpired();
+    }
+
+    private void attempt(Delivery delivery) {
+        delivery.status = DeliveryStatus.SENDING;
+        delivery.attempts++;
+        try {
+            smtpPool.send(delivery.message);
+            delivery.status = DeliveryStatus.SENT;
+            sentCounter.increment();
+            pending.decrementAndGet();
+        } catch (MailException e) {
+            if (delivery.attempts >= maxAttempts) {
+                fail(delivery, e);
+                return;
+            }
+            delivery.status = DeliveryStatus.RETRYING;
+            retriedCounter.increment();
+            long backoff = initialBackoffMs << (delivery.attempts - 1);
+            long jitter = ThreadLocalRandom.current().nextLong(backoff / 4 + 1);
+            log.warn("Mail to {} failed (attempt {}), retrying in {} ms: {}",
+                    recipients(delivery.message), delivery.attempts, backoff + jitter, e.getMessage());
+            try {
+                retryScheduler.schedule(() -> requeue(delivery), backoff + jitter, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shuttingDown) {
+                fail(delivery, e);
+            }
+        } catch (RuntimeException e) {
+            // not a delivery problem (bad message, pool bug): retrying will not help, but the slot
+            // in the queue and the delivery's status must still be settled
+            fail(delivery, e);
+        }
+    }
+
+    private void requeue(Delivery delivery) {
+        try {
+            executor.execute(delivery);
+        } catch (RejectedExecutionException e) {
+            fail(delivery, e);
+        }
+    }
+
+    private void fail(Delivery delivery, Exception cause) {
+        delivery.status = DeliveryStatus.FAILED;
+        failedCounter.increment();
+        pending.decrementAndGet();
+        log.error("Giving up on mail to {} after {} attempts", recipients(delivery.message), delivery.attempts, cause);
+    }
+
+    private Counter counter(String result) {
+        return Counter.builder("mail.delivery")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String recipients(SimpleMailMessage message) {
+        return message.getTo() == null ? "-" : String.join(",", message.getTo());
+    }
+
+    private final class Delivery implements Runnable, Comparable<Delivery> {
+        final String id;
+        final SimpleMailMessage message;
+        final MailPriority priority;
+        final long sequence;
+        volatile DeliveryStatus status = DeliveryStatus.QUEUED;
+        volatile int attempts;
+
+        Delivery(String id, SimpleMailMessage message, MailPriority priority, long sequence) {
+            this.id = id;
+            this.message = message;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            attempt(this);
+        }
+
+        // priority first, then submission order
+        @Override
+        public int compareTo(Delivery other) {
+            int byPriority = Integer.compare(priority.ordinal(), other.priority.ordinal());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
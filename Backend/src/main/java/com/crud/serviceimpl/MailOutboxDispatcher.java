@@ -0,0 +1,241 @@
+package com.crud.serviceimpl;
+
+import com.crud.entity.MailOutbox;
+import com.crud.enums.OutboxStatus;
+import com.crud.repository.MailOutboxRepository;
+import com.crud.util.SmtpConnectionPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the mail_outbox table in the background.
+ *
+ * A poller thread claims due rows with SELECT ... FOR UPDATE SKIP LOCKED and marks them
+ * SENDING under a lease, so several replicas can dispatch side by side. The claimed batch
+ * is split across a small worker pool and each worker sends its share over one pooled
+ * SMTP connection (see {@link SmtpConnectionPool}). Failures go back to PENDING with
+ * exponential backoff until the last attempt, after which the row is left as DEAD.
+ * Delivery is at-least-once: a dispatcher that dies mid-send has its rows picked up again
+ * when the lease runs out.
+ */
+@Component
+public class MailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    @Value("${mail.outbox.threads:4}")
+    private int threads;
+
+    @Value("${mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.initial-backoff-ms:30000}")
+    private long initialBackoffMs;
+
+    @Value("${mail.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${mail.outbox.retention-days:7}")
+    private long retentionDays;
+
+    @Autowired
+    private MailOutboxRepository outboxRepository;
+
+    @Autowired
+    private SmtpConnectionPool smtpPool;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ExecutorService senders;
+    private ScheduledExecutorService poller;
+
+    // refreshed once a minute so a metrics scrape never hits the database
+    private final AtomicLong pendingRows = new AtomicLong();
+    private final AtomicLong deadRows = new AtomicLong();
+
+    private Counter sentCounter;
+    private Counter retriedCounter;
+    private Counter deadCounter;
+    private Timer sendTimer;
+
+    @PostConstruct
+    void init() {
+        senders = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("mail-outbox-"));
+        poller = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("mail-outbox-poller-"));
+
+        Gauge.builder("mail.outbox.rows", pendingRows, AtomicLong::get).tag("status", "pending").register(meterRegistry);
+        Gauge.builder("mail.outbox.rows", deadRows, AtomicLong::get).tag("status", "dead").register(meterRegistry);
+        sentCounter = counter("sent");
+        retriedCounter = counter("retried");
+        deadCounter = counter("dead");
+        sendTimer = Timer.builder("mail.outbox.send")
+                .description("SMTP send time per batch sent over one connection")
+                .register(meterRegistry);
+
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        poller.shutdownNow();
+        senders.shutdown();
+        senders.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void refreshStats() {
+        pendingRows.set(outboxRepository.countByStatus(OutboxStatus.PENDING));
+        deadRows.set(outboxRepository.countByStatus(OutboxStatus.DEAD));
+    }
+
+    @Scheduled(fixedDelay = 3_600_000)
+    public void purgeSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        Integer purged = transactionTemplate.execute(tx -> outboxRepository.deleteSentBefore(cutoff));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} sent outbox mails older than {} days", purged, retentionDays);
+        }
+    }
+
+    // an exception escaping here would cancel the fixed-delay schedule, so everything is caught
+    private void poll() {
+        try {
+            List<MailOutbox> batch;
+            do {
+                batch = claim();
+                // one chunk per worker, each sent over a single connection
+                int chunkSize = Math.max(1, (batch.size() + threads - 1) / threads);
+                List<Future<?>> sends = new ArrayList<>(threads);
+                for (int from = 0; from < batch.size(); from += chunkSize) {
+                    List<MailOutbox> chunk = batch.subList(from, Math.min(batch.size(), from + chunkSize));
+                    sends.add(senders.submit(() -> send(chunk)));
+                }
+                for (Future<?> send : sends) {
+                    send.get();
+                }
+            } while (batch.size() == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("Mail outbox poll failed", e);
+        }
+    }
+
+    private List<MailOutbox> claim() {
+        List<MailOutbox> claimed = transactionTemplate.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<MailOutbox> due = outboxRepository.lockDue(now, batchSize);
+            for (MailOutbox mail : due) {
+                mail.setStatus(OutboxStatus.SENDING);
+                mail.setLockedUntil(now.plusSeconds(leaseSeconds));
+            }
+            return due;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    private void send(List<MailOutbox> chunk) {
+        List<SimpleMailMessage> messages = new ArrayList<>(chunk.size());
+        for (MailOutbox mail : chunk) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(mail.getRecipient());
+            message.setSubject(mail.getSubject());
+            message.setText(mail.getBody());
+            messages.add(message);
+        }
+
+        RuntimeException[] failures;
+        try {
+            failures = sendTimer.record(() -> smtpPool.sendBatch(messages));
+        } catch (RuntimeException e) {
+            // the whole batch failed before or between sends; settle every row now rather than
+            // leaving them SENDING until the lease runs out
+            log.error("Mail outbox batch of {} failed", chunk.size(), e);
+            failures = new RuntimeException[chunk.size()];
+            Arrays.fill(failures, e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < chunk.size(); i++) {
+            MailOutbox mail = chunk.get(i);
+            mail.setAttempts(mail.getAttempts() + 1);
+            mail.setLockedUntil(null);
+            if (failures[i] == null) {
+                mail.setStatus(OutboxStatus.SENT);
+                mail.setSentAt(now);
+                mail.setLastError(null);
+                sentCounter.increment();
+            } else {
+                failed(mail, failures[i], now);
+            }
+        }
+        outboxRepository.saveAll(chunk);
+    }
+
+    private void failed(MailOutbox mail, RuntimeException e, LocalDateTime now) {
+        mail.setLastError(truncate(e.getMessage()));
+        if (mail.getAttempts() >= maxAttempts) {
+            mail.setStatus(OutboxStatus.DEAD);
+            deadCounter.increment();
+            log.error("Giving up on outbox mail {} to {} after {} attempts",
+                    mail.getId(), mail.getRecipient(), mail.getAttempts(), e);
+            return;
+        }
+        long backoff = initialBackoffMs << (mail.getAttempts() - 1);
+        long jitter = ThreadLocalRandom.current().nextLong(backoff / 4 + 1);
+        mail.setStatus(OutboxStatus.PENDING);
+        mail.setNextAttemptAt(now.plusNanos((backoff + jitter) * 1_000_000));
+        retriedCounter.increment();
+        log.warn("Outbox mail {} to {} failed (attempt {}), retrying in {} ms: {}",
+                mail.getId(), mail.getRecipient(), mail.getAttempts(), backoff + jitter, e.getMessage());
+    }
+
+    private Counter counter(String result) {
+        return Counter.builder("mail.outbox")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+}
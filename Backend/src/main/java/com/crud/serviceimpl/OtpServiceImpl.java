@@ -0,0 +1,95 @@
+package com.crud.serviceimpl;
+
+import com.crud.enums.OtpPurpose;
+import com.crud.enums.OtpVerification;
+import com.crud.service.OtpService;
+import com.crud.util.ExpiringCache;
+import com.crud.util.ExpiringCacheMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class OtpServiceImpl implements OtpService {
+
+    @Value("${otp.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${otp.max-pending:100000}")
+    private int maxPending;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final SecureRandom random = new SecureRandom();
+
+    // "PURPOSE:email" -> pending OTP; kept in memory so logins never write to users/admins
+    private ExpiringCache<String, PendingOtp> pending;
+
+    @PostConstruct
+    void init() {
+        pending = new ExpiringCache<>("auth.otp", Duration.ofSeconds(ttlSeconds), false, maxPending, Duration.ofSeconds(1));
+        new ExpiringCacheMetrics(pending).bindTo(meterRegistry);
+    }
+
+    @Override
+    public String issue(OtpPurpose purpose, String email) {
+        String otp = String.format("%06d", random.nextInt(1_000_000));
+        pending.put(key(purpose, email), new PendingOtp(otp));
+        return otp;
+    }
+
+    @Override
+    public OtpVerification verify(OtpPurpose purpose, String email, String otp) {
+        String key = key(purpose, email);
+        PendingOtp entry = pending.get(key);
+        if (entry == null) {
+            return OtpVerification.EXPIRED;
+        }
+        if (otp == null || otp.trim().isEmpty()) {
+            return OtpVerification.INVALID;
+        }
+
+        // constant-time compare so response timing does not leak matching digits
+        if (MessageDigest.isEqual(entry.code, otp.trim().getBytes(StandardCharsets.US_ASCII))) {
+            // single use: of two concurrent correct submissions only one removes the entry
+            return pending.remove(key, entry) ? OtpVerification.VALID : OtpVerification.EXPIRED;
+        }
+
+        if (entry.attempts.incrementAndGet() >= maxAttempts) {
+            pending.remove(key, entry);
+            return OtpVerification.LOCKED;
+        }
+        return OtpVerification.INVALID;
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void evictExpired() {
+        pending.evictExpired();
+    }
+
+    private static String key(OtpPurpose purpose, String email) {
+        return purpose.name() + ":" + (email == null ? "" : email.trim().toLowerCase());
+    }
+
+    private static final class PendingOtp {
+        final byte[] code;
+        final AtomicInteger attempts = new AtomicInteger();
+
+        PendingOtp(String code) {
+            this.code = code.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.crud.serviceimpl;
+
+import com.crud.exception.TooManyRequestsException;
+import com.crud.service.PasswordHashingService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs BCrypt on its own pool sized to the CPU count, so a burst of logins or
+ * registrations cannot tie up every Tomcat worker. When the pool and its short
+ * queue are full the caller gets a 429 straight away instead of waiting.
+ */
+@Service
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+
+    @Value("${password.hashing.threads:0}")   // 0 = number of cores
+    private int threads;
+
+    @Value("${password.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${password.hashing.timeout-ms:5000}")
+    private long timeoutMs;
+
+    // the single shared BCrypt encoder from SecurityConfig
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Timer hashTimer;
+    private Timer matchTimer;
+    private Timer queueWaitTimer;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hashing.queue", executor, e -> e.getQueue().size())
+                .description("Hashing requests waiting for a pool thread")
+                .register(meterRegistry);
+        hashTimer = Timer.builder("password.hashing").tag("op", "hash").register(meterRegistry);
+        matchTimer = Timer.builder("password.hashing").tag("op", "matches").register(meterRegistry);
+        queueWaitTimer = Timer.builder("password.hashing.queue.wait").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        return run(hashTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        return run(matchTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> T run(Timer timer, Callable<T> work) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(work);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Server is busy, please retry shortly");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new TooManyRequestsException("Server is busy, please retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException("Password hashing failed", cause);
+        }
+    }
+}
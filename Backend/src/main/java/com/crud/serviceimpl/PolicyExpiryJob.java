@@ -0,0 +1,105 @@
+package com.crud.serviceimpl;
+
+import com.crud.repository.UserPolicyRepository;
+import com.crud.util.ClusterLock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks ACTIVE policies whose end date has passed as INACTIVE.
+ *
+ * The work is done in the database, as bounded UPDATE ... LIMIT chunks over the
+ * (policy_status, end_date) index, each in its own short transaction, so no rows are loaded
+ * and no lock is held for the whole run. A {@link ClusterLock} keeps it to one node per run;
+ * if a run outlives its lease and a second node starts, the updates are idempotent anyway.
+ */
+@Component
+public class PolicyExpiryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PolicyExpiryJob.class);
+
+    private static final String LOCK_NAME = "policy-expiry";
+
+    @Value("${policy.expiry.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${policy.expiry.lock-lease-minutes:30}")
+    private long leaseMinutes;
+
+    @Autowired
+    private UserPolicyRepository userPolicyRepository;
+
+    @Autowired
+    private ClusterLock clusterLock;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer runTimer;
+    private DistributionSummary expiredPerRun;
+    private Counter skippedRuns;
+
+    @PostConstruct
+    void init() {
+        runTimer = Timer.builder("policy.expiry.run").register(meterRegistry);
+        expiredPerRun = DistributionSummary.builder("policy.expiry.expired").baseUnit("policies").register(meterRegistry);
+        skippedRuns = Counter.builder("policy.expiry.skipped").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${policy.expiry.cron:0 15 0 * * *}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Policy expiry run failed", e);
+        }
+    }
+
+    /**
+     * @return the number of policies expired, or -1 if another node is already running the job
+     */
+    public int run() {
+        if (!clusterLock.tryAcquire(LOCK_NAME, Duration.ofMinutes(leaseMinutes))) {
+            skippedRuns.increment();
+            log.debug("Policy expiry already running on another node");
+            return -1;
+        }
+        try {
+            long started = System.nanoTime();
+            LocalDate today = LocalDate.now();
+            int expired = 0;
+            Integer chunk;
+            do {
+                chunk = transactionTemplate.execute(tx -> userPolicyRepository.expireEndedBefore(today, chunkSize));
+                expired += chunk == null ? 0 : chunk;
+            } while (chunk != null && chunk == chunkSize);
+
+            long elapsed = System.nanoTime() - started;
+            runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            expiredPerRun.record(expired);
+            if (expired > 0) {
+                log.info("Expired {} policies ended before {} in {} ms", expired, today, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+            return expired;
+        } finally {
+            clusterLock.release(LOCK_NAME);
+        }
+    }
+}
@@ -1,31 +1,40 @@
 package com.crud.serviceimpl;
 
+import com.crud.dto.CursorPage;
 import com.crud.dto.PolicyPlanRequest;
+import com.crud.dto.PolicyPlanResponse;
 import com.crud.dto.PolicyPlanWithBuyersResponse;
 import com.crud.dto.UserDetailsResponse;
 import com.crud.entity.Admin;
 import com.crud.entity.PolicyPlan;
-import com.crud.entity.UserPolicy;
-import com.crud.entity.UserProfile;
+import com.crud.event.PolicyCatalogChangedEvent;
 import com.crud.repository.AdminRepository;
 import com.crud.repository.PolicyPlanRepository;
 import com.crud.repository.UserPolicyRepository;
-import com.crud.repository.UserProfileRepository;
 import com.crud.service.PolicyPlanservice;
+import com.crud.util.BlobKeys;
+import com.crud.util.BlobStore;
+import com.crud.util.PolicyCatalogCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PolicyPlanImpl implements PolicyPlanservice {
 
+    private static final int MAX_BUYER_PAGE = 500;
+
     @Autowired
     private PolicyPlanRepository policyPlanRepository;
 
@@ -36,10 +45,13 @@ public class PolicyPlanImpl implements PolicyPlanservice {
     private UserPolicyRepository userPolicyRepository;
 
     @Autowired
-    private UserProfileRepository userProfileRepository;
+    private BlobStore blobStore;
 
+    @Autowired
+    private PolicyCatalogCache catalogCache;
 
-    private final String uploadDir = System.getProperty("user.home") + "/policy_uploads/";
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     public PolicyPlan createPlan(PolicyPlanRequest request, Long adminId) {
@@ -54,7 +66,9 @@ public class PolicyPlanImpl implements PolicyPlanservice {
         plan.setDurationInYears(request.getDurationInYears());
         plan.setAdmin(admin);
 
-        return policyPlanRepository.save(plan);
+        PolicyPlan saved = policyPlanRepository.save(plan);
+        eventPublisher.publishEvent(new PolicyCatalogChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Override
@@ -72,7 +86,9 @@ public class PolicyPlanImpl implements PolicyPlanservice {
         existing.setPremium(request.getPremium());
         existing.setDurationInYears(request.getDurationInYears());
 
-        return policyPlanRepository.save(existing);
+        PolicyPlan saved = policyPlanRepository.save(existing);
+        eventPublisher.publishEvent(new PolicyCatalogChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Override
@@ -85,6 +101,7 @@ public class PolicyPlanImpl implements PolicyPlanservice {
         }
 */
         policyPlanRepository.delete(existing);
+        eventPublisher.publishEvent(new PolicyCatalogChangedEvent(planId));
     }
 
     @Override
@@ -95,8 +112,13 @@ public class PolicyPlanImpl implements PolicyPlanservice {
     }
 
     @Override
-    public List<PolicyPlan> getAllPlans() {
-        return policyPlanRepository.findAll();
+    public List<PolicyPlanResponse> getAllPlans() {
+        return catalogCache.get().getPlans();
+    }
+
+    @Override
+    public PolicyCatalogCache.Snapshot getCatalog() {
+        return catalogCache.get();
     }
 
     @Override
@@ -107,7 +129,9 @@ public class PolicyPlanImpl implements PolicyPlanservice {
 
     @Override
     public PolicyPlan save(PolicyPlan plan) {
-        return policyPlanRepository.save(plan);
+        PolicyPlan saved = policyPlanRepository.save(plan);
+        eventPublisher.publishEvent(new PolicyCatalogChangedEvent(saved.getId()));
+        return saved;
     }
 
     // -------------------- FILE UPLOAD METHODS --------------------
@@ -119,14 +143,7 @@ public class PolicyPlanImpl implements PolicyPlanservice {
         PolicyPlan plan = createPlan(request, adminId);
 
         if (file != null && !file.isEmpty()) {
-            File dir = new File(uploadDir);
-            if (!dir.exists()) dir.mkdirs();
-
-            String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-            String fullPath = uploadDir + fileName;
-            file.transferTo(new File(fullPath));
-
-            plan.setImageUrl(fullPath);
+            plan.setImageUrl(storeImage(file));
             save(plan);
         }
 
@@ -143,42 +160,41 @@ public class PolicyPlanImpl implements PolicyPlanservice {
         if (file != null && !file.isEmpty()) {
             // delete old file if exists
             if (plan.getImageUrl() != null) {
-                File oldFile = new File(plan.getImageUrl());
-                if (oldFile.exists()) oldFile.delete();
+                deleteImage(plan.getImageUrl());
             }
 
-            File dir = new File(uploadDir);
-            if (!dir.exists()) dir.mkdirs();
-
-            String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-            String fullPath = uploadDir + fileName;
-            file.transferTo(new File(fullPath));
-
-            plan.setImageUrl(fullPath);
+            plan.setImageUrl(storeImage(file));
             save(plan);
         }
 
         return plan;
     }
 
+    // imageUrl holds the BlobStore key of the image
+    private String storeImage(MultipartFile file) throws IOException {
+        String key = BlobKeys.newUpload(BlobKeys.POLICY_IMAGES, file.getOriginalFilename());
+        try (InputStream in = file.getInputStream()) {
+            blobStore.put(key, in, file.getSize(), file.getContentType());
+        }
+        return key;
+    }
+
+    private void deleteImage(String imageUrl) throws IOException {
+        if (BlobKeys.isLegacyPath(imageUrl)) {
+            // stored before the BlobStore: an absolute path on this node
+            File oldFile = new File(imageUrl);
+            if (oldFile.exists()) oldFile.delete();
+        } else {
+            blobStore.delete(imageUrl);
+        }
+    }
+
     @Override
     public PolicyPlanWithBuyersResponse getPolicyPlanWithBuyers(Long planId) {
-         PolicyPlan plan = policyPlanRepository.findById(planId)
+        PolicyPlan plan = policyPlanRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Policy plan not found"));
 
-        List<UserPolicy> userPolicies = userPolicyRepository.findByPolicyPlanId(planId);
-
-        List<UserDetailsResponse> buyers = userPolicies.stream()
-                .map(up -> {
-                    UserProfile user = userProfileRepository.findById(up.getUserId())
-                            .orElseThrow(() -> new RuntimeException("User not found"));
-                    return new UserDetailsResponse(
-                            user.getId(),
-                            user.getName(),
-                            user.getUser().getEmail()
-                    );
-                })
-                .collect(Collectors.toList());
+        List<UserDetailsResponse> buyers = userPolicyRepository.findBuyersByPlanId(planId);
 
         return new PolicyPlanWithBuyersResponse(
                 plan.getId(),
@@ -190,4 +206,25 @@ public class PolicyPlanImpl implements PolicyPlanservice {
                 buyers
         );
     }
+
+    @Override
+    public CursorPage<UserDetailsResponse> getPlanBuyers(Long planId, Long after, int size) {
+        if (!policyPlanRepository.existsById(planId)) {
+            throw new RuntimeException("Policy plan not found");
+        }
+        int limit = Math.max(1, Math.min(size, MAX_BUYER_PAGE));
+        List<UserDetailsResponse> buyers = userPolicyRepository.findBuyersByPlanIdAfter(
+                planId, after == null ? 0L : after, PageRequest.of(0, limit));
+        Long next = buyers.size() == limit ? buyers.get(buyers.size() - 1).getUserId() : null;
+        return new CursorPage<>(buyers, next);
+    }
+
+    // the stream holds the connection until every buyer has been handed to the sink
+    @Override
+    @Transactional(readOnly = true)
+    public void exportPlanBuyers(Long planId, Consumer<UserDetailsResponse> sink) {
+        try (Stream<UserDetailsResponse> buyers = userPolicyRepository.streamBuyersByPlanId(planId)) {
+            buyers.forEach(sink);
+        }
+    }
 }
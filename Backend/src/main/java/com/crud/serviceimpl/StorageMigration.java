@@ -0,0 +1,310 @@
+package com.crud.serviceimpl;
+
+import com.crud.entity.ClaimDocument;
+import com.crud.entity.Document;
+import com.crud.entity.PolicyPlan;
+import com.crud.event.PolicyCatalogChangedEvent;
+import com.crud.repository.ClaimDocumentRepository;
+import com.crud.repository.DocumentRepository;
+import com.crud.repository.PolicyPlanRepository;
+import com.crud.util.BlobKeys;
+import com.crud.util.BlobStore;
+import com.crud.util.ContentStore;
+import com.crud.util.StoredBlob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Moves files stored under absolute local paths (flat upload directories, from before the
+ * BlobStore) to sharded storage keys, while the application keeps serving them.
+ *
+ * Runs in the background after startup. Document, claim document and policy plan rows that
+ * still hold an absolute path are walked by id in batches of {@code storage.migration.batch-size},
+ * pausing {@code storage.migration.pause-ms} between batches so the disk and database are not
+ * saturated. Each row is locked, its file copied into the store (a hard link on the local
+ * backend), its path rewritten to the key and committed; only then is the old file deleted,
+ * so readers always find one or the other. Documents without a content hash are hashed into
+ * the {@link ContentStore} on the way. Rows whose file is missing are skipped and logged.
+ * Finally blobs that no row refers to (left by rolled-back uploads) are removed. Safe to
+ * re-run, and to run on several replicas at once.
+ */
+@Component
+public class StorageMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageMigration.class);
+
+    // "<uuid>_<name>" as written by the old upload code
+    private static final Pattern UUID_NAME = Pattern.compile(
+            "([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12})_(.+)");
+
+    @Value("${storage.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${storage.migration.batch-size:100}")
+    private int batchSize;
+
+    @Value("${storage.migration.pause-ms:500}")
+    private long pauseMs;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private ClaimDocumentRepository claimDocumentRepository;
+
+    @Autowired
+    private PolicyPlanRepository policyPlanRepository;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private ExecutorService executor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("storage-migration-"));
+        executor.execute(this::run);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void run() {
+        try {
+            long started = System.nanoTime();
+            Result documents = migrate("document",
+                    (after, page) -> documentRepository.findByFilePathStartingWithAndDocumentIdGreaterThanOrderByDocumentIdAsc("/", after, page),
+                    Document::getDocumentId, this::migrateDocument);
+            Result claimDocuments = migrate("claim-document",
+                    (after, page) -> claimDocumentRepository.findByFilePathStartingWithAndClaimDocumentIdGreaterThanOrderByClaimDocumentIdAsc("/", after, page),
+                    ClaimDocument::getClaimDocumentId, this::migrateClaimDocument);
+            Result policyImages = migrate("policy-image",
+                    (after, page) -> policyPlanRepository.findByImageUrlStartingWithAndIdGreaterThanOrderByIdAsc("/", after, page),
+                    PolicyPlan::getId, this::migratePolicyImage);
+            if (policyImages.moved > 0) {
+                // image URLs are part of the cached catalog
+                eventPublisher.publishEvent(new PolicyCatalogChangedEvent(null));
+            }
+            int orphans = contentStore.removeOrphans();
+
+            if (documents.moved + claimDocuments.moved + policyImages.moved + orphans > 0
+                    || documents.skipped + claimDocuments.skipped + policyImages.skipped > 0) {
+                log.info("Storage migration: moved {} documents, {} claim documents, {} policy images "
+                                + "({} bytes reclaimed by deduplication), skipped {} rows, removed {} orphaned blobs in {} ms",
+                        documents.moved, claimDocuments.moved, policyImages.moved,
+                        documents.reclaimed + claimDocuments.reclaimed,
+                        documents.skipped + claimDocuments.skipped + policyImages.skipped,
+                        orphans, (System.nanoTime() - started) / 1_000_000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            log.error("Storage migration stopped; it resumes on the next start", e);
+        }
+    }
+
+    private <T> Result migrate(String area, BiFunction<Long, Pageable, List<T>> nextBatch, Function<T, Long> idOf,
+                               Function<Long, Moved> migrateOne) throws InterruptedException {
+        Counter moved = Counter.builder("storage.migration.moved").tag("area", area).register(meterRegistry);
+        Counter skipped = Counter.builder("storage.migration.skipped").tag("area", area).register(meterRegistry);
+        Result result = new Result();
+        Pageable page = PageRequest.of(0, batchSize);
+        long lastId = 0;
+        List<T> batch;
+        while (!(batch = nextBatch.apply(lastId, page)).isEmpty()) {
+            for (T row : batch) {
+                lastId = idOf.apply(row);
+                Moved outcome;
+                try {
+                    outcome = migrateOne.apply(lastId);
+                } catch (RuntimeException e) {
+                    log.warn("Could not migrate {} {}; leaving it in place", area, lastId, e);
+                    outcome = null;
+                }
+                if (outcome == null) {
+                    result.skipped++;
+                    skipped.increment();
+                    continue;
+                }
+                result.moved++;
+                result.reclaimed += outcome.reclaimed;
+                moved.increment();
+                deleteIfUnreferenced(outcome.oldLocation);
+            }
+            // throttle: leave disk and database headroom for live traffic
+            Thread.sleep(pauseMs);
+        }
+        return result;
+    }
+
+    private Moved migrateDocument(Long documentId) {
+        return transactionTemplate.execute(tx -> {
+            Document document = documentRepository.lockById(documentId).orElse(null);
+            if (document == null || !isLegacy(document.getFilePath())) {
+                return null;
+            }
+            Moved moved = moveDocument(document.getFilePath(), document.getContentHash(), document.getContentType());
+            if (moved != null) {
+                document.setContentHash(moved.hash);
+                document.setFilePath(moved.key);
+            }
+            return moved;
+        });
+    }
+
+    private Moved migrateClaimDocument(Long claimDocumentId) {
+        return transactionTemplate.execute(tx -> {
+            ClaimDocument document = claimDocumentRepository.lockById(claimDocumentId).orElse(null);
+            if (document == null || !isLegacy(document.getFilePath())) {
+                return null;
+            }
+            Moved moved = moveDocument(document.getFilePath(), document.getContentHash(), document.getContentType());
+            if (moved != null) {
+                document.setContentHash(moved.hash);
+                document.setFilePath(moved.key);
+            }
+            return moved;
+        });
+    }
+
+    private Moved migratePolicyImage(Long planId) {
+        return transactionTemplate.execute(tx -> {
+            PolicyPlan plan = policyPlanRepository.lockById(planId).orElse(null);
+            if (plan == null || !isLegacy(plan.getImageUrl())) {
+                return null;
+            }
+            String oldLocation = plan.getImageUrl();
+            Path oldPath = existing(oldLocation);
+            if (oldPath == null) {
+                return null;
+            }
+            // keep the upload's UUID as the file id, so the key still identifies the same image
+            String fileName = oldPath.getFileName().toString();
+            Matcher uuidName = UUID_NAME.matcher(fileName);
+            String key = uuidName.matches()
+                    ? BlobKeys.sharded(BlobKeys.POLICY_IMAGES, uuidName.group(1), uuidName.group(2))
+                    : BlobKeys.newUpload(BlobKeys.POLICY_IMAGES, fileName);
+            String contentType = MediaTypeFactory.getMediaType(fileName).map(Object::toString).orElse(null);
+            try {
+                blobStore.importFile(key, oldPath, contentType);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not move " + oldPath, e);
+            }
+            plan.setImageUrl(key);
+            return new Moved(null, key, oldLocation, 0);
+        });
+    }
+
+    // documents are content-addressed: hash files that predate the content store, relocate the rest
+    private Moved moveDocument(String filePath, String contentHash, String contentType) {
+        Path oldPath = existing(filePath);
+        if (oldPath == null) {
+            return null;
+        }
+        try {
+            if (contentHash == null) {
+                StoredBlob blob = contentStore.adopt(oldPath);
+                return new Moved(blob.getHash(), blob.getKey(), filePath, blob.isDeduplicated() ? blob.getSize() : 0);
+            }
+            // already counted in content_blob; only the file moves
+            String key = contentStore.keyOf(contentHash);
+            if (!blobStore.exists(key)) {
+                blobStore.importFile(key, oldPath, contentType);
+            }
+            return new Moved(contentHash, key, filePath, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not move " + oldPath + " into the content store", e);
+        }
+    }
+
+    private static boolean isLegacy(String location) {
+        return location != null && BlobKeys.isLegacyPath(location);
+    }
+
+    private static Path existing(String location) {
+        Path path = Paths.get(location).normalize();
+        if (!Files.isRegularFile(path)) {
+            log.warn("Skipping {}: file is missing", location);
+            return null;
+        }
+        return path;
+    }
+
+    // after commit; files from the first content store may be shared by several rows
+    private void deleteIfUnreferenced(String oldLocation) {
+        if (documentRepository.existsByFilePath(oldLocation) || claimDocumentRepository.existsByFilePath(oldLocation)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(oldLocation));
+        } catch (IOException e) {
+            log.warn("Moved {} but could not delete the original", oldLocation, e);
+        }
+    }
+
+    private static final class Moved {
+        final String hash;
+        final String key;
+        final String oldLocation;
+        final long reclaimed;
+
+        Moved(String hash, String key, String oldLocation, long reclaimed) {
+            this.hash = hash;
+            this.key = key;
+            this.oldLocation = oldLocation;
+            this.reclaimed = reclaimed;
+        }
+    }
+
+    private static final class Result {
+        long moved;
+        long skipped;
+        long reclaimed;
+    }
+}
@@ -3,10 +3,11 @@ package com.crud.serviceimpl;
 import com.crud.entity.User;
 import com.crud.enums.Role;
 import com.crud.repository.UserRepository;
+import com.crud.service.PasswordHashingService;
 import com.crud.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,11 +19,11 @@ public class UserImpl implements UserService {
     private UserRepository repository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Override
     public User createUser(User user) {
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHashingService.hash(user.getPassword()));
         user.setRole(Role.USER);
 
         return repository.save(user);
@@ -47,7 +48,10 @@ public class UserImpl implements UserService {
             User user1 = users.get();
             user1.setUserName(user.getUserName());
             user1.setEmail(user.getEmail());
-            user1.setPassword(user.getPassword());
+            // the edit form sends "" when the password is left alone; keep the stored hash then
+            if (StringUtils.hasText(user.getPassword())) {
+                user1.setPassword(passwordHashingService.hash(user.getPassword()));
+            }
 
             return repository.save(user1);
         } else {
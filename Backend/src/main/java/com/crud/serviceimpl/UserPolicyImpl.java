@@ -1,20 +1,28 @@
 package com.crud.serviceimpl;
 
+import com.crud.dto.CursorPage;
 import com.crud.dto.PurchaseRequest;
+import com.crud.dto.UserPolicyResponse;
 import com.crud.entity.PolicyPlan;
 import com.crud.entity.UserPolicy;
 import com.crud.repository.PolicyPlanRepository;
 import com.crud.repository.UserPolicyRepository;
 import com.crud.service.UserPolicyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class UserPolicyImpl implements UserPolicyService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private PolicyPlanRepository planRepository;
 
@@ -52,8 +60,8 @@ public class UserPolicyImpl implements UserPolicyService {
     }
 
     @Override
-    public List<UserPolicy> getAllPoliciesByUserId(Long userId) {
-        return userPolicyRepository.findAllByUserId(userId);
+    public List<UserPolicyResponse> getAllPoliciesByUserId(Long userId) {
+        return userPolicyRepository.findResponsesByUserId(userId);
     }
 
     @Override
@@ -61,6 +69,24 @@ public class UserPolicyImpl implements UserPolicyService {
         return userPolicyRepository.findAll();
     }
 
+    @Override
+    public CursorPage<UserPolicyResponse> getPolicyPage(Long after, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<UserPolicyResponse> policies = userPolicyRepository.findResponsesAfter(
+                after == null ? 0L : after, PageRequest.of(0, limit));
+        Long next = policies.size() == limit ? policies.get(policies.size() - 1).getId() : null;
+        return new CursorPage<>(policies, next);
+    }
+
+    // the stream holds the connection until every policy has been handed to the sink
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAllPolicies(Consumer<UserPolicyResponse> sink) {
+        try (Stream<UserPolicyResponse> policies = userPolicyRepository.streamAllResponses()) {
+            policies.forEach(sink);
+        }
+    }
+
     @Override
     public UserPolicy updatePolicy(Long policyId, UserPolicy updatedPolicy) {
         UserPolicy policy = userPolicyRepository.findById(policyId)
@@ -101,13 +127,13 @@ public class UserPolicyImpl implements UserPolicyService {
     }
 
     @Override
-    public List<UserPolicy> getPendingPoliciesByAdminId(Long adminId) {
-        return userPolicyRepository.findByPolicyPlan_Admin_IdAndPolicyStatus(adminId, "PENDING");
+    public List<UserPolicyResponse> getPendingPoliciesByAdminId(Long adminId) {
+        return userPolicyRepository.findResponsesByAdminIdAndStatus(adminId, "PENDING");
     }
 
     @Override
-    public List<UserPolicy> getActivePoliciesByAdminId(Long adminId) {
-        return userPolicyRepository.findByPolicyPlan_Admin_IdAndPolicyStatus(adminId, "ACTIVE");
+    public List<UserPolicyResponse> getActivePoliciesByAdminId(Long adminId) {
+        return userPolicyRepository.findResponsesByAdminIdAndStatus(adminId, "ACTIVE");
     }
 
 
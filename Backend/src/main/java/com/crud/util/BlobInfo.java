@@ -0,0 +1,35 @@
+package com.crud.util;
+
+// What a BlobStore knows about one stored object
+public final class BlobInfo {
+
+    private final String key;
+    private final long size;
+    private final long lastModified;
+    private final String contentType;
+
+    public BlobInfo(String key, long size, long lastModified, String contentType) {
+        this.key = key;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.contentType = contentType;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    // epoch millis
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    // null where the backend does not keep it (local disk); the database row has it anyway
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,44 @@
+package com.crud.util;
+
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Storage key layout: {@code <area>/<ab>/<cd>/<id>[_<name>]}, where ab/cd are the first four
+ * hex digits of the file id (a content hash or a random UUID). Ids are uniformly spread, so
+ * every directory (or S3 prefix) stays small however many files there are.
+ */
+public final class BlobKeys {
+
+    public static final String CONTENT = "blobs";
+    public static final String POLICY_IMAGES = "policy-images";
+
+    private static final Pattern HEX_ID = Pattern.compile("[0-9a-f]{4,}");
+
+    private BlobKeys() {
+    }
+
+    public static String sharded(String area, String fileId, String name) {
+        String hex = fileId.replace("-", "");
+        if (!HEX_ID.matcher(hex).matches()) {
+            throw new IllegalArgumentException("File id must be hex: " + fileId);
+        }
+        String key = area + "/" + hex.substring(0, 2) + "/" + hex.substring(2, 4) + "/" + fileId;
+        return name == null ? key : key + "_" + sanitize(name);
+    }
+
+    // A fresh key for an upload that is not content-addressed
+    public static String newUpload(String area, String originalName) {
+        return sharded(area, UUID.randomUUID().toString(), originalName == null ? "file" : originalName);
+    }
+
+    // Rows written before the BlobStore hold absolute local paths instead of keys
+    public static boolean isLegacyPath(String location) {
+        return location.startsWith("/") || Paths.get(location).isAbsolute();
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^a-zA-Z0-9\\.\\-_]", "_");
+    }
+}
@@ -0,0 +1,48 @@
+package com.crud.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Where uploaded files live: local disk for a single node ({@link LocalBlobStore}) or an
+ * S3-compatible bucket shared by every replica ({@link S3BlobStore}), chosen with
+ * {@code storage.backend}. Keys are relative, '/'-separated and built by {@link BlobKeys}.
+ */
+public interface BlobStore {
+
+    // Streams exactly {@code length} bytes from {@code content} to {@code key}, replacing what was there
+    void put(String key, InputStream content, long length, String contentType) throws IOException;
+
+    // Stores a finished local file under {@code key}; the source is consumed (moved or deleted)
+    void putFile(String key, Path source, String contentType) throws IOException;
+
+    // Stores a copy of a local file under {@code key} and leaves the source alone
+    void importFile(String key, Path source, String contentType) throws IOException;
+
+    /**
+     * Opens {@code length} bytes of {@code key} starting at {@code offset}.
+     *
+     * @throws java.nio.file.NoSuchFileException if there is no such key
+     */
+    InputStream get(String key, long offset, long length) throws IOException;
+
+    Optional<BlobInfo> stat(String key) throws IOException;
+
+    default boolean exists(String key) throws IOException {
+        return stat(key).isPresent();
+    }
+
+    // No-op if the key does not exist
+    void delete(String key) throws IOException;
+
+    // Every object under {@code prefix}; close the stream when done
+    Stream<BlobInfo> list(String prefix) throws IOException;
+
+    // The file behind {@code key} on local disk, so it can be sent with sendfile; empty for remote stores
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,59 @@
+package com.crud.util;
+
+import com.crud.repository.JobLockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Lease-based lock shared by every node through the job_lock table, so a scheduled job runs
+ * on one node at a time. A lock is held until it is released or its lease runs out; a node
+ * that dies mid-run therefore blocks the job for at most one lease. Leases are compared with
+ * the nodes' own clocks, so they should be long next to any clock skew.
+ */
+@Component
+public class ClusterLock {
+
+    // this instance; a restarted node is a new owner
+    private final String owner = hostName() + ":" + UUID.randomUUID();
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public boolean tryAcquire(String name, Duration lease) {
+        Boolean acquired = transactionTemplate.execute(tx -> {
+            LocalDateTime now = now();
+            jobLockRepository.createIfAbsent(name, now);
+            return jobLockRepository.claim(name, owner, now, now.plus(lease)) == 1;
+        });
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    // no-op if the lease has already been taken over by another node
+    public void release(String name) {
+        transactionTemplate.executeWithoutResult(tx -> jobLockRepository.release(name, owner, now()));
+    }
+
+    // whole seconds: the column would round finer values, possibly up past the next claim's "now"
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
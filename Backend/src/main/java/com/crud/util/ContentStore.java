@@ -0,0 +1,355 @@
+package com.crud.util;
+
+import com.crud.entity.ContentBlob;
+import com.crud.repository.ContentBlobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed, deduplicated store for uploaded documents.
+ *
+ * Each upload is hashed (SHA-256) while it streams to a local temporary file; identical
+ * bytes are kept once in the {@link BlobStore}, under {@code blobs/<ab>/<cd>/<hash>}, with a content_blob row
+ * counting the Document / ClaimDocument rows that point at it. Acquiring a reference is an
+ * upsert whose row lock is held until the caller's transaction commits, and the sweeper only
+ * deletes blobs it can lock with a zero count, so a blob is never removed under a new upload
+ * of the same bytes. Releasing only decrements; files go once the count has stayed at zero
+ * for the grace period. Blobs whose transaction rolled back after they were written are
+ * removed by an hourly orphan sweep.
+ */
+@Component
+public class ContentStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentStore.class);
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final int SWEEP_BATCH = 100;
+
+    // scratch space for hashing uploads; on the local backend it shares a file system with the blobs
+    @Value("${storage.local.dir:${user.dir}/uploads}")
+    private String localDir;
+
+    @Value("${storage.blobs.sweep-grace-minutes:60}")
+    private long sweepGraceMinutes;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ContentBlobRepository blobRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Path tempDir;
+
+    // refreshed by the sweeper so a metrics scrape never hits the database
+    private final AtomicLong unreferencedBlobs = new AtomicLong();
+
+    private Counter storedCounter;
+    private Counter deduplicatedCounter;
+    private Counter deduplicatedBytes;
+    private Counter sweptCounter;
+
+    @PostConstruct
+    void init() throws IOException {
+        tempDir = Files.createDirectories(Paths.get(localDir).toAbsolutePath().normalize().resolve("tmp"));
+
+        storedCounter = Counter.builder("storage.blobs.stored").register(meterRegistry);
+        deduplicatedCounter = Counter.builder("storage.blobs.deduplicated").register(meterRegistry);
+        deduplicatedBytes = Counter.builder("storage.blobs.deduplicated.bytes").baseUnit("bytes").register(meterRegistry);
+        sweptCounter = Counter.builder("storage.blobs.swept").register(meterRegistry);
+        Gauge.builder("storage.blobs.unreferenced", unreferencedBlobs, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Streams an upload into the store (type and size checked as in {@link StreamingUpload})
+     * and takes one reference on it. Must run in the transaction that saves the referencing row.
+     */
+    @Transactional
+    public StoredBlob store(InputStream in, String contentType, long maxBytes) throws IOException {
+        Staged staged = stage(in, contentType, maxBytes);
+        try {
+            acquire(List.of(staged));
+            return publish(staged);
+        } finally {
+            discard(staged);
+        }
+    }
+
+    /**
+     * Takes an existing file (a pre-dedupe upload) into the store and one reference on it.
+     * The original is hard-linked, or copied across file systems, and left in place; the
+     * caller deletes it once its row points at the blob.
+     */
+    @Transactional
+    public StoredBlob adopt(Path existing) throws IOException {
+        Path temp = newTempFile();
+        try {
+            try {
+                Files.createLink(temp, existing);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(existing, temp);
+            }
+            // a fresh mtime keeps removeOrphans() off it until this transaction has committed
+            Files.setLastModifiedTime(temp, FileTime.fromMillis(System.currentTimeMillis()));
+            Staged staged = new Staged(hash(temp), Files.size(temp), temp, null);
+            acquire(List.of(staged));
+            return publish(staged);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * First step of {@link #store}, split out for uploads handled in parallel: hashes and
+     * checks the upload into a temp file. No database access, so any thread may call it.
+     * Follow with {@link #acquire} in the saving transaction and {@link #publish}, and
+     * always {@link #discard} at the end.
+     */
+    public Staged stage(InputStream in, String contentType, long maxBytes) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = newTempFile();
+        try {
+            long size = StreamingUpload.store(new DigestInputStream(in, digest), contentType, maxBytes, temp);
+            return new Staged(HexFormat.of().formatHex(digest.digest()), size, temp, contentType);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    // One reference per staged upload; the row locks (so no sweep of these hashes) last until commit
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acquire(List<Staged> staged) {
+        LocalDateTime now = LocalDateTime.now();
+        // in hash order, so two batches sharing files cannot deadlock on each other's rows
+        staged.stream()
+                .sorted(Comparator.comparing(Staged::getHash))
+                .forEach(upload -> blobRepository.acquire(upload.getHash(), upload.getSize(), now));
+    }
+
+    // Writes the blob unless identical bytes are already stored; any thread, after acquire
+    public StoredBlob publish(Staged staged) throws IOException {
+        String key = keyOf(staged.getHash());
+        if (blobStore.exists(key)) {
+            deduplicatedCounter.increment();
+            deduplicatedBytes.increment(staged.getSize());
+            return new StoredBlob(staged.getHash(), key, staged.getSize(), true);
+        }
+        blobStore.putFile(key, staged.temp, staged.contentType);
+        storedCounter.increment();
+        return new StoredBlob(staged.getHash(), key, staged.getSize(), false);
+    }
+
+    /**
+     * Undoes {@link #publish} when the saving transaction is about to fail: deletes the blob if
+     * this upload was the one that wrote it. Call it before the transaction rolls back, while
+     * acquire's row lock still keeps any other upload of the same bytes waiting.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void unpublish(StoredBlob blob) {
+        if (blob.isDeduplicated()) {
+            return;   // the bytes belong to rows that already existed
+        }
+        try {
+            blobStore.delete(blob.getKey());
+        } catch (IOException e) {
+            // left for the orphan sweep
+            log.warn("Could not remove blob {} of a failed upload", blob.getHash(), e);
+        }
+    }
+
+    public void discard(Staged staged) {
+        try {
+            Files.deleteIfExists(staged.temp);
+        } catch (IOException e) {
+            log.warn("Could not delete upload temp file {}", staged.temp, e);
+        }
+    }
+
+    // Drops one reference; the file itself goes in a later sweep
+    @Transactional
+    public void release(String hash) {
+        if (blobRepository.release(hash, LocalDateTime.now()) == 0) {
+            log.warn("Released blob {} that had no references", hash);
+        }
+    }
+
+    public String keyOf(String hash) {
+        if (!HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 hex digest: " + hash);
+        }
+        return BlobKeys.sharded(BlobKeys.CONTENT, hash, null);
+    }
+
+    @Scheduled(fixedDelayString = "${storage.blobs.sweep-interval-ms:600000}")
+    public void sweep() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusMinutes(sweepGraceMinutes);
+            int swept = 0;
+            Integer batch;
+            do {
+                batch = transactionTemplate.execute(tx -> sweepBatch(cutoff));
+                swept += batch == null ? 0 : batch;
+            } while (batch != null && batch == SWEEP_BATCH);
+            if (swept > 0) {
+                log.info("Removed {} unreferenced blobs", swept);
+            }
+            sweepTemp(Duration.ofMinutes(sweepGraceMinutes));
+            unreferencedBlobs.set(blobRepository.countByRefCount(0));
+        } catch (RuntimeException e) {
+            log.error("Blob sweep failed", e);
+        }
+    }
+
+    // blobs written by transactions that rolled back after publishing
+    @Scheduled(fixedDelayString = "${storage.blobs.orphan-sweep-interval-ms:3600000}",
+            initialDelayString = "${storage.blobs.orphan-sweep-interval-ms:3600000}")
+    public void sweepOrphans() {
+        try {
+            int removed = removeOrphans();
+            if (removed > 0) {
+                log.info("Removed {} orphaned blobs", removed);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Orphan blob sweep failed", e);
+        }
+    }
+
+    private int sweepBatch(LocalDateTime cutoff) {
+        List<ContentBlob> unreferenced = blobRepository.lockUnreferenced(cutoff, SWEEP_BATCH);
+        for (ContentBlob blob : unreferenced) {
+            try {
+                blobStore.delete(keyOf(blob.getHash()));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not delete blob " + blob.getHash(), e);
+            }
+            blobRepository.delete(blob);
+            sweptCounter.increment();
+        }
+        return unreferenced.size();
+    }
+
+    // temp files left by a crash mid-upload
+    private void sweepTemp(Duration olderThan) {
+        long cutoff = System.currentTimeMillis() - olderThan.toMillis();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean blob temp directory {}", tempDir, e);
+        }
+    }
+
+    /**
+     * Deletes blobs that no content_blob row refers to and that are older than the grace
+     * period. They are left behind when a transaction that placed a new blob rolls back.
+     *
+     * @return the number of blobs removed
+     */
+    public int removeOrphans() throws IOException {
+        long cutoff = System.currentTimeMillis() - Duration.ofMinutes(sweepGraceMinutes).toMillis();
+        int removed = 0;
+        try (Stream<BlobInfo> blobs = blobStore.list(BlobKeys.CONTENT)) {
+            for (BlobInfo blob : (Iterable<BlobInfo>) blobs::iterator) {
+                String hash = blob.getKey().substring(blob.getKey().lastIndexOf('/') + 1);
+                if (!HASH.matcher(hash).matches() || blob.getLastModified() >= cutoff
+                        || blobRepository.existsById(hash)) {
+                    continue;
+                }
+                blobStore.delete(blob.getKey());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private Path newTempFile() {
+        return tempDir.resolve(UUID.randomUUID() + ".part");
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // An upload hashed into a temp file, not yet referenced or published
+    public static final class Staged {
+
+        private final String hash;
+        private final long size;
+        private final Path temp;
+        private final String contentType;
+
+        private Staged(String hash, long size, Path temp, String contentType) {
+            this.hash = hash;
+            this.size = size;
+            this.temp = temp;
+            this.contentType = contentType;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.crud.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Concurrent in-memory map whose entries expire after a TTL, with an optional
+ * sliding expiry and a hard cap on the number of entries.
+ *
+ * Expired entries are found through a hashed timer wheel: every entry sits in the
+ * slot of the tick it expires in, and {@link #evictExpired()} only visits the slots
+ * whose ticks have passed since the previous sweep, never the whole map. A sliding
+ * read only bumps the entry's deadline; the sweep moves it to its new slot when it
+ * reaches the old one, so reads never touch the wheel.
+ */
+public class ExpiringCache<K, V> {
+
+    private static final int WHEEL_SLOTS = 512;
+
+    private final String name;
+    private final long ttlMillis;
+    private final boolean sliding;
+    private final int maxSize;
+    private final long tickMillis;
+
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    @SuppressWarnings("unchecked")
+    private final Set<Entry<K, V>>[] wheel = new Set[WHEEL_SLOTS];
+    private volatile long lastSweptTick;
+
+    private BiConsumer<K, V> evictionListener = (key, value) -> { };
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringCache(String name, Duration ttl, boolean sliding, int maxSize, Duration tick) {
+        this.name = name;
+        this.ttlMillis = ttl.toMillis();
+        this.sliding = sliding;
+        this.maxSize = maxSize;
+        this.tickMillis = Math.max(1, tick.toMillis());
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.lastSweptTick = tickOf(System.currentTimeMillis());
+    }
+
+    // called for entries that expire or are pushed out by the size cap, not for explicit removes
+    public ExpiringCache<K, V> onEviction(BiConsumer<K, V> listener) {
+        this.evictionListener = listener;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // lookup that counts towards hit/miss stats and slides the expiry if enabled
+    public V get(K key) {
+        long now = System.currentTimeMillis();
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= now) {
+            expire(entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (sliding) {
+            // only the deadline moves here, at most once per tick; the sweep relocates the entry lazily
+            long expiresAt = now + entry.ttlMillis;
+            if (expiresAt - entry.expiresAt >= tickMillis) {
+                entry.expiresAt = expiresAt;
+            }
+        }
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, ttl.toMillis());
+    }
+
+    // atomically inserts only if no live entry exists; returns the live value otherwise
+    public V putIfAbsent(K key, V value) {
+        long now = System.currentTimeMillis();
+        Entry<K, V> created = newEntry(key, value, ttlMillis, now);
+        while (true) {
+            Entry<K, V> existing = entries.putIfAbsent(key, created);
+            if (existing == null) {
+                schedule(created);
+                afterInsert(created);
+                return null;
+            }
+            if (existing.expiresAt > now) {
+                return existing.value;
+            }
+            expire(existing);
+        }
+    }
+
+    public V remove(K key) {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        wheel[entry.slot].remove(entry);
+        return entry.value;
+    }
+
+    public boolean remove(K key, V value) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null || entry.value != value || !entries.remove(key, entry)) {
+            return false;
+        }
+        wheel[entry.slot].remove(entry);
+        return true;
+    }
+
+    public long size() {
+        return entries.mappingCount();
+    }
+
+    public long hitCount() { return hits.sum(); }
+
+    public long missCount() { return misses.sum(); }
+
+    public long putCount() { return puts.sum(); }
+
+    public long evictionCount() { return evictions.sum(); }
+
+    /**
+     * Drops every entry whose tick has passed. Meant to be called on a fixed delay;
+     * visits at most one full turn of the wheel per call.
+     */
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        long currentTick = tickOf(now);
+        long from = lastSweptTick;
+        long to = Math.min(currentTick, from + WHEEL_SLOTS);
+        int removed = 0;
+        for (long tick = from; tick <= to; tick++) {
+            int slot = (int) (tick % WHEEL_SLOTS);
+            Iterator<Entry<K, V>> it = wheel[slot].iterator();
+            while (it.hasNext()) {
+                Entry<K, V> entry = it.next();
+                if (entry.slot != slot || entries.get(entry.key) != entry) {
+                    it.remove();   // stale: replaced or removed
+                } else if (entry.expiresAt <= now) {
+                    it.remove();
+                    if (entries.remove(entry.key, entry)) {
+                        evicted(entry);
+                        removed++;
+                    }
+                } else if (slotOf(entry.expiresAt) != slot) {
+                    it.remove();   // expiry slid forward since it was scheduled
+                    relocate(entry);
+                }
+                // otherwise it belongs to a later turn of the wheel
+            }
+        }
+        lastSweptTick = to;
+        return removed;
+    }
+
+    private void put(K key, V value, long ttl) {
+        Entry<K, V> created = newEntry(key, value, ttl, System.currentTimeMillis());
+        Entry<K, V> previous = entries.put(key, created);
+        if (previous != null) {
+            wheel[previous.slot].remove(previous);
+        }
+        schedule(created);
+        if (previous == null) {
+            afterInsert(created);
+        } else {
+            puts.increment();
+        }
+    }
+
+    private void afterInsert(Entry<K, V> inserted) {
+        puts.increment();
+        while (entries.mappingCount() > maxSize) {
+            if (!evictSoonest(inserted)) {
+                break;
+            }
+        }
+    }
+
+    // size cap reached: drop the entry closest to expiry. The wheel is walked from the current
+    // tick to the first slot with a live entry, and within that slot the earliest deadline goes
+    // (a slot also holds entries from later turns of the wheel).
+    private boolean evictSoonest(Entry<K, V> keep) {
+        long start = tickOf(System.currentTimeMillis());
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            int slot = (int) ((start + i) % WHEEL_SLOTS);
+            Entry<K, V> soonest = null;
+            for (Entry<K, V> entry : wheel[slot]) {
+                if (entry == keep) {
+                    continue;
+                }
+                if (entry.slot != slot || entries.get(entry.key) != entry) {
+                    wheel[slot].remove(entry);   // stale: replaced or removed
+                } else if (slotOf(entry.expiresAt) != slot) {
+                    wheel[slot].remove(entry);
+                    relocate(entry);   // recently used, no longer among the soonest
+                } else if (soonest == null || entry.expiresAt < soonest.expiresAt) {
+                    soonest = entry;
+                }
+            }
+            if (soonest != null && entries.remove(soonest.key, soonest)) {
+                wheel[slot].remove(soonest);
+                evicted(soonest);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void expire(Entry<K, V> entry) {
+        if (entries.remove(entry.key, entry)) {
+            wheel[entry.slot].remove(entry);
+            evicted(entry);
+        }
+    }
+
+    private void evicted(Entry<K, V> entry) {
+        evictions.increment();
+        evictionListener.accept(entry.key, entry.value);
+    }
+
+    private Entry<K, V> newEntry(K key, V value, long ttl, long now) {
+        return new Entry<>(key, value, ttl, now + ttl, slotOf(now + ttl));
+    }
+
+    private void schedule(Entry<K, V> entry) {
+        wheel[entry.slot].add(entry);
+    }
+
+    private void relocate(Entry<K, V> entry) {
+        int slot = slotOf(entry.expiresAt);
+        entry.slot = slot;
+        wheel[slot].add(entry);
+    }
+
+    private long tickOf(long millis) {
+        return millis / tickMillis;
+    }
+
+    private int slotOf(long expiresAt) {
+        return (int) (tickOf(expiresAt) % WHEEL_SLOTS);
+    }
+
+    private static final class Entry<K, V> {
+        final K key;
+        final V value;
+        final long ttlMillis;
+        volatile long expiresAt;
+        volatile int slot;
+
+        Entry(K key, V value, long ttlMillis, long expiresAt, int slot) {
+            this.key = key;
+            this.value = value;
+            this.ttlMillis = ttlMillis;
+            this.expiresAt = expiresAt;
+            this.slot = slot;
+        }
+    }
+}
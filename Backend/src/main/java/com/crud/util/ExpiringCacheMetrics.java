@@ -0,0 +1,57 @@
+package com.crud.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+// Publishes an ExpiringCache as the standard cache.* meters (gets, puts, evictions, size)
+public class ExpiringCacheMetrics extends CacheMeterBinder<ExpiringCache<?, ?>> {
+
+    public ExpiringCacheMetrics(ExpiringCache<?, ?> cache) {
+        super(cache, cache.getName(), Tags.empty());
+    }
+
+    @Override
+    protected Long size() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache == null ? 0 : cache.hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache == null ? 0 : cache.putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.hit.ratio", this, metrics -> {
+                    ExpiringCache<?, ?> cache = metrics.getCache();
+                    if (cache == null) return Double.NaN;
+                    long total = cache.hitCount() + cache.missCount();
+                    return total == 0 ? 0.0 : (double) cache.hitCount() / total;
+                })
+                .tags(getTagsWithCacheName())
+                .description("Fraction of lookups served from the cache")
+                .register(registry);
+    }
+}
@@ -0,0 +1,265 @@
+package com.crud.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * Serves stored files (documents, claim documents, policy images) straight to the response.
+ *
+ * The content type comes from the stored metadata, never from probing the file, and one stat
+ * call gives the length and a strong ETag. Conditional requests (If-None-Match /
+ * If-Modified-Since) are answered with 304 and no body; a single Range (guarded by If-Range)
+ * gets 206 so large PDFs can resume. Files on local disk are handed to Tomcat's sendfile when
+ * the connector supports it, so the kernel does the copy, or else streamed with
+ * {@link FileChannel#transferTo}; files in a remote {@link BlobStore} are streamed with a
+ * ranged read.
+ */
+@Component
+public class FileResponder {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private BlobStore blobStore;
+
+    /**
+     * @param location    storage key, or an absolute path for files stored before the BlobStore
+     * @param contentType stored content type; if null it is taken from the store or the file extension
+     * @param fileName    name offered to the browser
+     * @param attachment  true for a download, false to display inline
+     */
+    public void serve(HttpServletRequest request, HttpServletResponse response, String location,
+                      String contentType, String fileName, boolean attachment) throws IOException {
+        Optional<Path> local = BlobKeys.isLegacyPath(location)
+                ? Optional.of(Paths.get(location).normalize())
+                : blobStore.localPath(location);
+        if (local.isPresent()) {
+            serve(request, response, local.get(), contentType, fileName, attachment);
+            return;
+        }
+
+        Optional<BlobInfo> info = blobStore.stat(location);
+        if (info.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        BlobInfo blob = info.get();
+        String name = fileName != null ? fileName : location.substring(location.lastIndexOf('/') + 1);
+        String type = contentType != null ? contentType
+                : blob.getContentType() != null ? blob.getContentType() : typeFromName(name);
+        respond(request, response, blob.getSize(), blob.getLastModified(), type, name, attachment, (start, end) -> {
+            try (InputStream in = blobStore.get(location, start, end - start + 1)) {
+                in.transferTo(response.getOutputStream());
+            }
+        });
+    }
+
+    // A file on local disk
+    public void serve(HttpServletRequest request, HttpServletResponse response, Path path,
+                      String contentType, String fileName, boolean attachment) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String name = fileName != null ? fileName : path.getFileName().toString();
+        String type = contentType != null ? contentType : typeFromName(path.getFileName().toString());
+        respond(request, response, attributes.size(), attributes.lastModifiedTime().toMillis(), type, name, attachment,
+                (start, end) -> sendFile(request, response, path, start, end));
+    }
+
+    private void respond(HttpServletRequest request, HttpServletResponse response, long length, long lastModified,
+                         String contentType, String fileName, boolean attachment, Body body) throws IOException {
+        // size + mtime: changes whenever the bytes do, since files are only ever replaced
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // private documents: browsers may keep them, but must revalidate (a cheap 304)
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition(fileName, attachment));
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && length > 0 && ifRangeMatches(request, etag, lastModified)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+        body.write(start, end);
+    }
+
+    private static void sendFile(HttpServletRequest request, HttpServletResponse response, Path path,
+                                 long start, long end) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = end - start + 1;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;   // file shrank underneath us
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesAny(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    // If-Range holds either an ETag or a date; the Range only applies if it still matches
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date != -1 && lastModified / 1000 == date / 1000;
+    }
+
+    private static boolean matchesAny(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);   // weak comparison is fine for GET
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return {start, end} for one satisfiable range, an empty array to ignore the header
+     * (malformed, invalid such as 500-100, or multi-range: the full file is sent), or null
+     * if it is well-formed but cannot be satisfied (416)
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                // suffix range: the last N bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? Long.MAX_VALUE : Long.parseLong(spec.substring(dash + 1));
+                if (start > end) {
+                    return new long[0];   // invalid range: RFC 9110 says to ignore it, not reject it
+                }
+                end = Math.min(end, length - 1);
+            }
+            // well-formed, but starts past the end of the file
+            if (start >= length) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static String typeFromName(String fileName) {
+        return MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+    }
+
+    private static String disposition(String fileName, boolean attachment) {
+        String encoded = URLEncoder.encode(fileName, StandardCharsets.UTF_8).replace("+", "%20");
+        return (attachment ? "attachment" : "inline") + "; filename*=UTF-8''" + encoded;
+    }
+
+    // writes bytes start..end (inclusive) of the file to the response
+    private interface Body {
+        void write(long start, long end) throws IOException;
+    }
+}
@@ -0,0 +1,96 @@
+package com.crud.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes objects to a response as they are read, for listings too large to build in memory:
+ * either as the elements of one JSON array or as newline-delimited JSON (one object per line).
+ * Output is flushed to the client every {@value #FLUSH_EVERY} rows instead of after each one.
+ *
+ * The closing bracket of an array is only written by {@link #finish()}, so a listing that fails
+ * halfway reaches the client as invalid JSON rather than as a shorter, valid list.
+ */
+public class JsonStreamWriter implements Closeable {
+
+    private static final int FLUSH_EVERY = 500;
+
+    public enum Format {
+        ARRAY {
+            @Override
+            void start(JsonGenerator generator) throws IOException {
+                generator.writeStartArray();
+            }
+
+            @Override
+            void end(JsonGenerator generator) throws IOException {
+                generator.writeEndArray();
+            }
+        },
+        NDJSON {
+            @Override
+            void start(JsonGenerator generator) {
+                generator.setRootValueSeparator(null);
+            }
+
+            @Override
+            void afterValue(JsonGenerator generator) throws IOException {
+                generator.writeRaw('\n');
+            }
+        };
+
+        void start(JsonGenerator generator) throws IOException {
+        }
+
+        void afterValue(JsonGenerator generator) throws IOException {
+        }
+
+        void end(JsonGenerator generator) throws IOException {
+        }
+    }
+
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+    private final Format format;
+    private int unflushed;
+
+    public JsonStreamWriter(ObjectMapper mapper, OutputStream out, Format format) throws IOException {
+        this.generator = mapper.getFactory().createGenerator(out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.format = format;
+        format.start(generator);
+    }
+
+    // Unchecked, so it can be used as a row callback; the cause is the client's IOException
+    public void write(Object value) {
+        try {
+            writer.writeValue(generator, value);
+            format.afterValue(generator);
+            if (++unflushed >= FLUSH_EVERY) {
+                generator.flush();
+                unflushed = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // call once every row is written; skipped on failure, see above
+    public void finish() throws IOException {
+        format.end(generator);
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
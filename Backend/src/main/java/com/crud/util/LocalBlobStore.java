@@ -0,0 +1,197 @@
+package com.crud.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * {@link BlobStore} on the local file system, under {@code storage.local.dir}. Writes go to
+ * a temp file in the same directory tree and are renamed into place, so readers never see a
+ * partial file. Only suitable when a single backend instance serves the files.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    @Value("${storage.local.dir:${user.dir}/uploads}")
+    private String dir;
+
+    private Path root;
+    private Path tempDir;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(dir).toAbsolutePath().normalize();
+        tempDir = Files.createDirectories(root.resolve("tmp"));
+    }
+
+    @Override
+    public void put(String key, InputStream content, long length, String contentType) throws IOException {
+        Path temp = tempDir.resolve(UUID.randomUUID() + ".part");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long written = 0;
+                long transferred;
+                ReadableByteChannel source = Channels.newChannel(content);
+                while (written < length && (transferred = out.transferFrom(source, written, length - written)) > 0) {
+                    written += transferred;
+                }
+                if (written != length) {
+                    throw new IOException("Expected " + length + " bytes for " + key + " but got " + written);
+                }
+            }
+            putFile(key, temp, contentType);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void putFile(String key, Path source, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // a hard link when source and store share a file system, so no bytes are copied
+    @Override
+    public void importFile(String key, Path source, String contentType) throws IOException {
+        Path temp = tempDir.resolve(UUID.randomUUID() + ".part");
+        try {
+            try {
+                Files.createLink(temp, source);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(source, temp);
+            }
+            putFile(key, temp, contentType);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        channel.position(offset);
+        return new BoundedInputStream(Channels.newInputStream(channel), length);
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+            return Optional.of(new BlobInfo(key, attributes.size(), attributes.lastModifiedTime().toMillis(), null));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Stream<BlobInfo> list(String prefix) throws IOException {
+        Path start = resolve(prefix);
+        if (!Files.isDirectory(start)) {
+            return Stream.empty();
+        }
+        return Files.find(start, Integer.MAX_VALUE, (path, attributes) -> attributes.isRegularFile())
+                .map(path -> {
+                    try {
+                        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                        return new BlobInfo(root.relativize(path).toString().replace('\\', '/'),
+                                attributes.size(), attributes.lastModifiedTime().toMillis(), null);
+                    } catch (IOException e) {
+                        return null;   // deleted while listing
+                    }
+                })
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(resolve(key));
+    }
+
+    // keys are relative; anything escaping the root is refused
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || BlobKeys.isLegacyPath(key)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+
+    // caps a positioned channel stream at the requested range
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+}
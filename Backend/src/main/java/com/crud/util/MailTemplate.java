@@ -0,0 +1,100 @@
+package com.crud.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A mail template parsed once into literal / placeholder segments.
+ *
+ * Source format: an optional {@code Subject:} first line, a blank line, then the body;
+ * {@code {{name}}} marks a placeholder. Rendering appends the segments into a caller-supplied
+ * buffer, so there is no parsing, regex or formatter work per mail.
+ */
+public final class MailTemplate {
+
+    private static final String SUBJECT_HEADER = "Subject:";
+
+    private final String name;
+    private final int version;
+    private final Segments subject;
+    private final Segments body;
+
+    private MailTemplate(String name, int version, Segments subject, Segments body) {
+        this.name = name;
+        this.version = version;
+        this.subject = subject;
+        this.body = body;
+    }
+
+    public static MailTemplate compile(String name, int version, String source) {
+        String text = source.replace("\r\n", "\n");
+        // text files end with a newline; it is not part of the template
+        if (text.endsWith("\n")) {
+            text = text.substring(0, text.length() - 1);
+        }
+
+        String subjectText = "";
+        if (text.startsWith(SUBJECT_HEADER)) {
+            int lineEnd = text.indexOf('\n');
+            subjectText = (lineEnd < 0 ? text.substring(SUBJECT_HEADER.length()) : text.substring(SUBJECT_HEADER.length(), lineEnd)).trim();
+            text = lineEnd < 0 ? "" : text.substring(lineEnd + 1);
+            if (text.startsWith("\n")) {
+                text = text.substring(1);
+            }
+        }
+        return new MailTemplate(name, version, Segments.parse(name, subjectText), Segments.parse(name, text));
+    }
+
+    public String getName() { return name; }
+
+    public int getVersion() { return version; }
+
+    public void appendSubject(StringBuilder out, Map<String, ?> model) {
+        subject.appendTo(out, model);
+    }
+
+    public void appendBody(StringBuilder out, Map<String, ?> model) {
+        body.appendTo(out, model);
+    }
+
+    // literals[0] value(names[0]) literals[1] ... value(names[n-1]) literals[n]
+    private static final class Segments {
+        private final String[] literals;
+        private final String[] names;
+
+        private Segments(String[] literals, String[] names) {
+            this.literals = literals;
+            this.names = names;
+        }
+
+        static Segments parse(String template, String text) {
+            List<String> literals = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            int from = 0;
+            int open;
+            while ((open = text.indexOf("{{", from)) >= 0) {
+                int close = text.indexOf("}}", open + 2);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed placeholder in mail template " + template);
+                }
+                literals.add(text.substring(from, open));
+                names.add(text.substring(open + 2, close).trim());
+                from = close + 2;
+            }
+            literals.add(text.substring(from));
+            return new Segments(literals.toArray(new String[0]), names.toArray(new String[0]));
+        }
+
+        void appendTo(StringBuilder out, Map<String, ?> model) {
+            out.append(literals[0]);
+            for (int i = 0; i < names.length; i++) {
+                Object value = model.get(names[i]);
+                if (value != null) {
+                    out.append(value);
+                }
+                out.append(literals[i + 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.crud.util;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Named, versioned mail templates, compiled once at startup.
+ *
+ * Templates ship in {@code classpath:mail-templates/<name>.v<N>.txt}; the highest version of
+ * each name wins. If {@code mail.templates.dir} is set, files there are loaded on top (and
+ * win a version tie) and the directory is re-scanned every minute, so wording can change
+ * without a rebuild. Rendering reuses a per-thread buffer.
+ */
+@Component
+public class MailTemplateRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(MailTemplateRegistry.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("([a-z0-9-]+)\\.v(\\d+)\\.txt");
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    @Value("${mail.templates.dir:}")
+    private String externalDir;
+
+    private volatile Map<String, MailTemplate> templates = Map.of();
+    private long externalSignature;
+
+    @PostConstruct
+    void init() {
+        load();
+    }
+
+    // Picks up edited or new versions dropped into mail.templates.dir
+    @Scheduled(fixedDelay = 60_000)
+    public void reloadIfChanged() {
+        if (externalDir == null || externalDir.isBlank()) {
+            return;
+        }
+        try {
+            if (externalSignature() != externalSignature) {
+                load();
+            }
+        } catch (RuntimeException e) {
+            log.error("Reloading mail templates failed; keeping the current set", e);
+        }
+    }
+
+    public MailTemplate get(String name) {
+        MailTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown mail template: " + name);
+        }
+        return template;
+    }
+
+    public String renderSubject(String name, Map<String, ?> model) {
+        StringBuilder buffer = buffer();
+        get(name).appendSubject(buffer, model);
+        return release(buffer);
+    }
+
+    public String renderBody(String name, Map<String, ?> model) {
+        StringBuilder buffer = buffer();
+        get(name).appendBody(buffer, model);
+        return release(buffer);
+    }
+
+    // for composing: e.g. one line template appended per digest item
+    public void appendBody(StringBuilder out, String name, Map<String, ?> model) {
+        get(name).appendBody(out, model);
+    }
+
+    public SimpleMailMessage message(String to, String name, Map<String, ?> model) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject(renderSubject(name, model));
+        message.setText(renderBody(name, model));
+        return message;
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    // don't let one huge digest pin a large buffer to the thread forever
+    private static String release(StringBuilder buffer) {
+        String rendered = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    private synchronized void load() {
+        Map<String, MailTemplate> loaded = new HashMap<>();
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver()
+                    .getResources("classpath*:mail-templates/*.txt");
+            for (Resource resource : resources) {
+                try (InputStream in = resource.getInputStream()) {
+                    add(loaded, resource.getFilename(), new String(in.readAllBytes(), StandardCharsets.UTF_8), false);
+                }
+            }
+            if (externalDir != null && !externalDir.isBlank()) {
+                for (Path file : externalFiles()) {
+                    add(loaded, file.getFileName().toString(), Files.readString(file, StandardCharsets.UTF_8), true);
+                }
+                externalSignature = externalSignature();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load mail templates", e);
+        }
+        templates = Map.copyOf(loaded);
+        log.info("Loaded {} mail templates", loaded.size());
+    }
+
+    private static void add(Map<String, MailTemplate> loaded, String fileName, String source, boolean external) {
+        Matcher matcher = fileName == null ? null : FILE_NAME.matcher(fileName);
+        if (matcher == null || !matcher.matches()) {
+            log.warn("Ignoring mail template {}: expected <name>.v<N>.txt", fileName);
+            return;
+        }
+        String name = matcher.group(1);
+        int version = Integer.parseInt(matcher.group(2));
+        MailTemplate current = loaded.get(name);
+        if (current == null || version > current.getVersion() || (external && version == current.getVersion())) {
+            loaded.put(name, MailTemplate.compile(name, version, source));
+        }
+    }
+
+    private List<Path> externalFiles() throws IOException {
+        Path dir = Paths.get(externalDir);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(Files::isRegularFile).sorted().toList();
+        }
+    }
+
+    private long externalSignature() {
+        try {
+            long signature = 1;
+            for (Path file : externalFiles()) {
+                signature = 31 * signature + file.getFileName().hashCode();
+                signature = 31 * signature + Files.getLastModifiedTime(file).toMillis();
+                signature = 31 * signature + Files.size(file);
+            }
+            return signature;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
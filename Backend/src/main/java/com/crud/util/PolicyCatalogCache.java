@@ -0,0 +1,173 @@
+package com.crud.util;
+
+import com.crud.dto.PolicyPlanResponse;
+import com.crud.event.PolicyCatalogChangedEvent;
+import com.crud.repository.PolicyPlanRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the whole policy catalog (every PolicyPlan row), for the public listing.
+ *
+ * The catalog is read once, as {@link PolicyPlanResponse}s so nothing about the owning admin
+ * reaches this public listing, and serialized once with the application's ObjectMapper;
+ * requests get the same bytes back, so serving it costs no query and no Jackson work. Plan
+ * writes publish a {@link PolicyCatalogChangedEvent}, and the snapshot is rebuilt once that
+ * transaction has committed and swapped in whole. Every rebuild is numbered, and an older
+ * rebuild that finishes late never replaces a newer one. A periodic refresh picks up writes
+ * made on other replicas.
+ */
+@Component
+public class PolicyCatalogCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PolicyCatalogCache.class);
+
+    @Autowired
+    private PolicyPlanRepository policyPlanRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicLong generations = new AtomicLong();
+
+    private Counter hits;
+    private Counter misses;
+    private Timer rebuildTimer;
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("policy.catalog.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("policy.catalog.requests").tag("result", "miss").register(meterRegistry);
+        rebuildTimer = Timer.builder("policy.catalog.rebuild").register(meterRegistry);
+        Gauge.builder("policy.catalog.hit.ratio", this, PolicyCatalogCache::hitRatio).register(meterRegistry);
+        Gauge.builder("policy.catalog.plans", current, ref -> ref.get() == null ? 0 : ref.get().getPlans().size())
+                .register(meterRegistry);
+        Gauge.builder("policy.catalog.bytes", current, ref -> ref.get() == null ? 0 : ref.get().getJson().length)
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    // Read-through: only the first request (or one after a failed rebuild) touches the database
+    public Snapshot get() {
+        Snapshot snapshot = current.get();
+        if (snapshot != null) {
+            hits.increment();
+            return snapshot;
+        }
+        misses.increment();
+        synchronized (this) {
+            snapshot = current.get();
+            return snapshot != null ? snapshot : rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(PolicyCatalogChangedEvent event) {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // the write itself has committed; drop the stale copy so the next read rebuilds
+            log.error("Could not rebuild policy catalog after change to plan {}", event.getPlanId(), e);
+            current.set(null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${policy.catalog.refresh-ms:300000}",
+            initialDelayString = "${policy.catalog.refresh-ms:300000}")
+    public void refresh() {
+        if (current.get() == null) {
+            return;   // nobody has asked yet
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Policy catalog refresh failed; keeping the previous snapshot", e);
+        }
+    }
+
+    private Snapshot rebuild() {
+        long generation = generations.incrementAndGet();
+        Snapshot fresh = rebuildTimer.record(() -> load(generation));
+        return current.accumulateAndGet(fresh,
+                (existing, candidate) -> existing == null || existing.generation < candidate.generation ? candidate : existing);
+    }
+
+    private Snapshot load(long generation) {
+        // the admin association is lazy and never touched, so this is a single query
+        List<PolicyPlanResponse> plans = policyPlanRepository.findAll(Sort.by("id")).stream()
+                .map(PolicyPlanResponse::new)
+                .toList();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(plans);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize policy catalog", e);
+        }
+        return new Snapshot(generation, plans, json, etag(json));
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // One immutable version of the catalog; the plans are shared, so callers must not modify them
+    public static final class Snapshot {
+
+        private final long generation;
+        private final List<PolicyPlanResponse> plans;
+        private final byte[] json;
+        private final String etag;
+
+        private Snapshot(long generation, List<PolicyPlanResponse> plans, byte[] json, String etag) {
+            this.generation = generation;
+            this.plans = plans;
+            this.json = json;
+            this.etag = etag;
+        }
+
+        public List<PolicyPlanResponse> getPlans() {
+            return plans;
+        }
+
+        // shared array: write it out, never change it
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.crud.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link BlobStore} on an S3-compatible bucket (AWS S3, MinIO, ...), so every backend
+ * replica sees the same files. Set {@code storage.s3.endpoint} and path-style access for
+ * MinIO; credentials fall back to the default AWS chain when no keys are configured.
+ * Bodies are streamed both ways and ranged reads become ranged GETs.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3")
+public class S3BlobStore implements BlobStore {
+
+    @Value("${storage.s3.bucket}")
+    private String bucket;
+
+    @Value("${storage.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${storage.s3.path-style:false}")
+    private boolean pathStyle;
+
+    @Value("${storage.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${storage.s3.secret-key:}")
+    private String secretKey;
+
+    private S3Client s3;
+
+    @PostConstruct
+    void init() {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .forcePathStyle(pathStyle)
+                // the SDK's default trailing CRC checksums are not understood by many S3-compatible stores
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED);
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        builder.credentialsProvider(accessKey.isBlank()
+                ? DefaultCredentialsProvider.builder().build()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        s3 = builder.build();
+    }
+
+    @PreDestroy
+    void close() {
+        s3.close();
+    }
+
+    @Override
+    public void put(String key, InputStream content, long length, String contentType) throws IOException {
+        try {
+            s3.putObject(b -> b.bucket(bucket).key(key).contentLength(length).contentType(contentType),
+                    RequestBody.fromInputStream(content, length));
+        } catch (SdkException e) {
+            throw new IOException("Could not store " + key, e);
+        }
+    }
+
+    @Override
+    public void putFile(String key, Path source, String contentType) throws IOException {
+        importFile(key, source, contentType);
+        Files.deleteIfExists(source);
+    }
+
+    @Override
+    public void importFile(String key, Path source, String contentType) throws IOException {
+        try {
+            s3.putObject(b -> b.bucket(bucket).key(key).contentType(contentType), RequestBody.fromFile(source));
+        } catch (SdkException e) {
+            throw new IOException("Could not store " + key, e);
+        }
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        try {
+            return s3.getObject(b -> b.bucket(bucket).key(key).range("bytes=" + offset + "-" + (offset + length - 1)));
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(key);
+        } catch (SdkException e) {
+            throw new IOException("Could not read " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = s3.headObject(b -> b.bucket(bucket).key(key));
+            return Optional.of(new BlobInfo(key, head.contentLength(), head.lastModified().toEpochMilli(), head.contentType()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            // HEAD has no body, so a missing key can surface as a bare 404
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("Could not stat " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("Could not stat " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3.deleteObject(b -> b.bucket(bucket).key(key));
+        } catch (SdkException e) {
+            throw new IOException("Could not delete " + key, e);
+        }
+    }
+
+    @Override
+    public Stream<BlobInfo> list(String prefix) throws IOException {
+        String dirPrefix = prefix.endsWith("/") ? prefix : prefix + "/";
+        try {
+            return s3.listObjectsV2Paginator(b -> b.bucket(bucket).prefix(dirPrefix))
+                    .contents()
+                    .stream()
+                    .filter(object -> !object.key().endsWith("/"))   // "folder" markers made by consoles
+                    .map(object -> new BlobInfo(object.key(), object.size(), object.lastModified().toEpochMilli(), null));
+        } catch (SdkException e) {
+            throw new IOException("Could not list " + prefix, e);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.crud.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a few authenticated SMTP connections open and sends over them.
+ *
+ * {@link JavaMailSenderImpl#send} connects, does the TLS handshake and logs in for every
+ * call; here a connection is borrowed, used for a whole batch, and returned. Idle
+ * connections are handed out most-recently-used first so the rest can time out, are
+ * NOOP-checked before reuse after a quiet spell, and are retired after a message or age
+ * limit (providers such as Gmail drop long-lived sessions). A send that fails because the
+ * connection broke is retried once on a fresh connection.
+ */
+@Component
+public class SmtpConnectionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpConnectionPool.class);
+
+    @Value("${mail.smtp-pool.size:6}")
+    private int size;
+
+    @Value("${mail.smtp-pool.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${mail.smtp-pool.max-lifetime-seconds:300}")
+    private long maxLifetimeSeconds;
+
+    @Value("${mail.smtp-pool.idle-timeout-seconds:60}")
+    private long idleTimeoutSeconds;
+
+    @Value("${mail.smtp-pool.validate-after-ms:10000}")
+    private long validateAfterMs;
+
+    @Value("${mail.smtp-pool.borrow-timeout-ms:10000}")
+    private long borrowTimeoutMs;
+
+    @Autowired
+    private JavaMailSenderImpl mailSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Semaphore permits;
+    private final LinkedBlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+
+    private Counter openedCounter;
+    private Counter reconnectCounter;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(size);
+        openedCounter = Counter.builder("mail.smtp.connections.opened").register(meterRegistry);
+        reconnectCounter = Counter.builder("mail.smtp.reconnects")
+                .description("Sends retried on a fresh connection after the old one broke")
+                .register(meterRegistry);
+        Gauge.builder("mail.smtp.connections", idle, LinkedBlockingDeque::size)
+                .tag("state", "idle").register(meterRegistry);
+        Gauge.builder("mail.smtp.connections", this, pool -> pool.size - pool.permits.availablePermits())
+                .tag("state", "in-use").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    public void send(SimpleMailMessage message) throws MailException {
+        MailException failure = sendBatch(List.of(message))[0];
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Sends the messages in order over one pooled connection.
+     *
+     * @return one entry per message: null if it was sent, otherwise why it was not
+     */
+    public MailException[] sendBatch(List<SimpleMailMessage> messages) {
+        MailException[] failures = new MailException[messages.size()];
+        PooledTransport connection;
+        try {
+            connection = borrow();
+        } catch (MailException e) {
+            Arrays.fill(failures, e);
+            return failures;
+        }
+
+        try {
+            for (int i = 0; i < messages.size(); i++) {
+                MimeMessage mime;
+                try {
+                    mime = toMime(messages.get(i));
+                } catch (MessagingException e) {
+                    failures[i] = new MailParseException(e);
+                    continue;
+                }
+                try {
+                    // replaced here rather than in sendOne, so a rejected message cannot strand the new connection
+                    if (connection == null || connection.broken) {
+                        connection = open();
+                    }
+                } catch (MessagingException e) {
+                    failures[i] = translate(e);
+                    continue;
+                }
+                try {
+                    connection = sendOne(connection, mime);
+                } catch (MailException e) {
+                    failures[i] = e;
+                }
+            }
+        } finally {
+            release(connection);
+        }
+        return failures;
+    }
+
+    // Closes connections nobody has used for a while
+    @Scheduled(fixedDelay = 30_000)
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        for (PooledTransport connection : idle) {
+            if (connection.lastUsed < cutoff && idle.remove(connection)) {
+                close(connection);
+            }
+        }
+    }
+
+    // connection is open; the one returned (it or its replacement) is the one to keep using
+    private PooledTransport sendOne(PooledTransport connection, MimeMessage mime) {
+        Address[] recipients = recipientsOf(mime);
+        try {
+            connection.transport.sendMessage(mime, recipients);
+            connection.sent++;
+            return connection;
+        } catch (SendFailedException e) {
+            // the server refused this message (bad recipient etc.); the connection is fine
+            throw new MailSendException("Mail rejected: " + e.getMessage(), e);
+        } catch (MessagingException | IllegalStateException e) {
+            // dropped or timed-out connection: reconnect once and retry
+            close(connection);
+            reconnectCounter.increment();
+            PooledTransport fresh = null;
+            try {
+                fresh = open();
+                fresh.transport.sendMessage(mime, recipients);
+                fresh.sent++;
+                return fresh;
+            } catch (MessagingException | IllegalStateException retryFailure) {
+                close(fresh);
+                throw new MailSendException("Mail send failed after reconnect: " + retryFailure.getMessage(), retryFailure);
+            }
+        }
+    }
+
+    private PooledTransport borrow() {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("No SMTP connection available within " + borrowTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted waiting for an SMTP connection");
+        }
+        try {
+            PooledTransport connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (isReusable(connection)) {
+                    return connection;
+                }
+                close(connection);
+            }
+            return open();
+        } catch (MessagingException e) {
+            permits.release();
+            throw translate(e);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // a broken connection is not pooled again; only the permit goes back
+    private void release(PooledTransport connection) {
+        if (connection != null && !connection.broken) {
+            connection.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(connection);
+        }
+        permits.release();
+    }
+
+    private boolean isReusable(PooledTransport connection) {
+        long now = System.currentTimeMillis();
+        if (connection.sent >= maxMessagesPerConnection
+                || now - connection.openedAt > TimeUnit.SECONDS.toMillis(maxLifetimeSeconds)) {
+            return false;
+        }
+        // isConnected() costs a NOOP round trip, so only ask after a quiet spell
+        return now - connection.lastUsed < validateAfterMs || connection.transport.isConnected();
+    }
+
+    private PooledTransport open() throws MessagingException {
+        // same protocol fallback as JavaMailSenderImpl
+        String protocol = mailSender.getProtocol();
+        if (protocol == null) {
+            protocol = mailSender.getSession().getProperty("mail.transport.protocol");
+        }
+        Transport transport = mailSender.getSession().getTransport(protocol != null ? protocol : "smtp");
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        openedCounter.increment();
+        return new PooledTransport(transport);
+    }
+
+    private static void close(PooledTransport connection) {
+        if (connection == null) {
+            return;
+        }
+        connection.broken = true;
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection", e);
+        }
+    }
+
+    // same preparation JavaMailSenderImpl does before handing a message to its transport
+    private MimeMessage toMime(SimpleMailMessage message) throws MessagingException {
+        MimeMessage mime = mailSender.createMimeMessage();
+        message.copyTo(new MimeMailMessage(mime));
+        if (mime.getSentDate() == null) {
+            mime.setSentDate(new Date());
+        }
+        mime.saveChanges();
+        return mime;
+    }
+
+    private static Address[] recipientsOf(MimeMessage mime) {
+        try {
+            Address[] recipients = mime.getAllRecipients();
+            return recipients != null ? recipients : new Address[0];
+        } catch (MessagingException e) {
+            throw new MailParseException(e);
+        }
+    }
+
+    private static MailException translate(MessagingException e) {
+        if (e instanceof AuthenticationFailedException) {
+            return new MailAuthenticationException(e);
+        }
+        return new MailSendException("Could not connect to SMTP server: " + e.getMessage(), e);
+    }
+
+    private static final class PooledTransport {
+        final Transport transport;
+        final long openedAt = System.currentTimeMillis();
+        volatile long lastUsed = openedAt;
+        int sent;
+        boolean broken;
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.crud.util;
+
+// Where ContentStore put an upload: its SHA-256, the BlobStore key of the shared copy and its size
+public final class StoredBlob {
+
+    private final String hash;
+    private final String key;
+    private final long size;
+    private final boolean deduplicated;
+
+    public StoredBlob(String hash, String key, long size, boolean deduplicated) {
+        this.hash = hash;
+        this.key = key;
+        this.size = size;
+        this.deduplicated = deduplicated;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    // true if identical bytes were already stored and this upload only added a reference
+    public boolean isDeduplicated() {
+        return deduplicated;
+    }
+}
@@ -0,0 +1,80 @@
+package com.crud.util;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Writes an uploaded stream to disk without holding the file on the heap.
+ *
+ * Only the first few bytes are read into memory, to check the file's magic number against
+ * its declared content type; the rest goes through {@link FileChannel#transferFrom}. When
+ * the upload is spooled to disk (a {@link FileInputStream}) that is a kernel file-to-file
+ * copy; otherwise the JDK moves it through one bounded, cached temporary direct buffer.
+ * Either way the heap cost per upload is constant, whatever the file size.
+ */
+public final class StreamingUpload {
+
+    private static final Map<String, byte[]> MAGIC_NUMBERS = Map.of(
+            "application/pdf", new byte[]{'%', 'P', 'D', 'F', '-'},
+            "image/png", new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'},
+            "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF},
+            "image/jpg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}
+    );
+
+    private static final int HEADER_BYTES = 8;
+
+    private StreamingUpload() {
+    }
+
+    /**
+     * Streams {@code in} into a new file at {@code target}.
+     *
+     * @return the number of bytes written
+     * @throws RuntimeException if the content does not start with the magic number of
+     *                          {@code contentType} or is larger than {@code maxBytes};
+     *                          the partial file is removed
+     */
+    public static long store(InputStream in, String contentType, long maxBytes, Path target) throws IOException {
+        byte[] magic = MAGIC_NUMBERS.get(contentType);
+        if (magic == null) {
+            throw new RuntimeException("Only PDF and Image (JPG, JPEG, PNG) files are allowed");
+        }
+
+        byte[] header = in.readNBytes(HEADER_BYTES);
+        if (header.length < magic.length || !Arrays.equals(header, 0, magic.length, magic, 0, magic.length)) {
+            throw new RuntimeException("File content does not match its type " + contentType);
+        }
+
+        boolean complete = false;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long written = out.write(ByteBuffer.wrap(header));
+
+            // a FileInputStream hands over its FileChannel, which makes this a kernel copy
+            ReadableByteChannel source = Channels.newChannel(in);
+            long limit = maxBytes + 1;   // one byte past the limit is enough to know it is too big
+            long transferred;
+            while (written < limit && (transferred = out.transferFrom(source, written, limit - written)) > 0) {
+                written += transferred;
+            }
+            if (written > maxBytes) {
+                throw new RuntimeException("File too large. Maximum allowed size is " + (maxBytes / (1024 * 1024)) + " MB");
+            }
+            complete = true;
+            return written;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(target);
+            }
+        }
+    }
+}
@@ -2,13 +2,179 @@ package com.crud.util;
 
 
 import com.crud.entity.Admin;
+import com.crud.enums.Role;
+import com.crud.event.AdminRegisteredEvent;
+import com.crud.event.DocumentUploadedEvent;
+import com.crud.repository.AdminRepository;
+import com.crud.service.EmailService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects upload / admin-registration events and mails the super admin one digest per window.
+ *
+ * Events are only buffered once their transaction has committed. The buffer is flushed on a
+ * background thread every interval, or early once it reaches the batch size, so a burst of
+ * uploads becomes a handful of mails instead of one each. The super admin's address is
+ * looked up at most once per refresh period rather than once per upload.
+ */
 @Component
 public class SuperAdminNotifier {
 
-    public void notifyNewAdmin(Admin admin) {
-        System.out.println("[SuperAdminNotifier] New admin registration awaiting approval: " + admin.getEmail());
+    private static final Logger log = LoggerFactory.getLogger(SuperAdminNotifier.class);
+
+    private static final Duration RECIPIENT_REFRESH = Duration.ofMinutes(10);
+
+    @Value("${notifications.digest.max-batch:200}")
+    private int maxBatch;
+
+    @Value("${notifications.digest.interval-seconds:300}")
+    private long intervalSeconds;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private MailTemplateRegistry mailTemplates;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Queue<DocumentUploadedEvent> uploads = new ConcurrentLinkedQueue<>();
+    private final Queue<AdminRegisteredEvent> registrations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private ScheduledExecutorService flusher;
+    private Counter digestCounter;
+
+    // only touched on the flusher thread
+    private String superAdminEmail;
+    private long superAdminLoadedAt;
+
+    @PostConstruct
+    void init() {
+        flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("admin-digest-"));
+        flusher.scheduleWithFixedDelay(this::flush, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        digestCounter = Counter.builder("notifications.digest.sent").register(meterRegistry);
+        meterRegistry.gauge("notifications.digest.buffered", buffered);
+    }
+
+    // whatever is still buffered goes out on shutdown
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentUploaded(DocumentUploadedEvent event) {
+        uploads.add(event);
+        buffered();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAdminRegistered(AdminRegisteredEvent event) {
+        registrations.add(event);
+        buffered();
+    }
+
+    private void buffered() {
+        if (buffered.incrementAndGet() >= maxBatch && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    // an exception escaping here would cancel the fixed-delay schedule, so everything is caught
+    private synchronized void flush() {
+        flushRequested.set(false);
+        try {
+            List<DocumentUploadedEvent> newUploads = drain(uploads);
+            List<AdminRegisteredEvent> newAdmins = drain(registrations);
+            if (newUploads.isEmpty() && newAdmins.isEmpty()) {
+                return;
+            }
+
+            String recipient = superAdminEmail();
+            if (recipient == null) {
+                log.warn("No super admin to notify; dropping digest of {} uploads and {} registrations",
+                        newUploads.size(), newAdmins.size());
+                return;
+            }
+            emailService.sendTemplate(recipient, "admin-digest", digestModel(newUploads, newAdmins));
+            digestCounter.increment();
+        } catch (RuntimeException e) {
+            log.error("Could not send super admin digest", e);
+        }
+    }
+
+    private <T> List<T> drain(Queue<T> queue) {
+        List<T> drained = new ArrayList<>();
+        T event;
+        while ((event = queue.poll()) != null) {
+            drained.add(event);
+            buffered.decrementAndGet();
+        }
+        return drained;
+    }
+
+    private String superAdminEmail() {
+        long now = System.currentTimeMillis();
+        if (superAdminEmail == null || now - superAdminLoadedAt > RECIPIENT_REFRESH.toMillis()) {
+            List<Admin> superAdmins = adminRepository.findByRole(Role.SUPER_ADMIN);
+            superAdminEmail = superAdmins.isEmpty() ? null : superAdmins.get(0).getEmail();
+            superAdminLoadedAt = now;
+        }
+        return superAdminEmail;
+    }
+
+    private Map<String, Object> digestModel(List<DocumentUploadedEvent> uploads, List<AdminRegisteredEvent> admins) {
+        StringBuilder adminLines = new StringBuilder();
+        for (AdminRegisteredEvent admin : admins) {
+            mailTemplates.appendBody(adminLines, "admin-digest-admin-line", Map.of(
+                    "username", String.valueOf(admin.getUsername()),
+                    "email", admin.getEmail(),
+                    "registeredAt", admin.getRegisteredAt()));
+            adminLines.append('\n');
+        }
+        StringBuilder uploadLines = new StringBuilder();
+        for (DocumentUploadedEvent upload : uploads) {
+            mailTemplates.appendBody(uploadLines, "admin-digest-upload-line", Map.of(
+                    "userName", String.valueOf(upload.getUserName()),
+                    "documentName", String.valueOf(upload.getDocumentName()),
+                    "originalFileName", String.valueOf(upload.getOriginalFileName()),
+                    "uploadedAt", upload.getUploadedAt()));
+            uploadLines.append('\n');
+        }
+        return Map.of(
+                "adminCount", admins.size(),
+                "uploadCount", uploads.size(),
+                "admins", adminLines,
+                "uploads", uploadLines);
     }
 }
- 
\ No newline at end of file
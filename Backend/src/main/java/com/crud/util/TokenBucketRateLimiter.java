@@ -0,0 +1,86 @@
+package com.crud.util;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process token-bucket limiter keyed by an arbitrary string (client IP, email, ...).
+ *
+ * Each key gets its own small bucket object and the refill/consume step locks only that
+ * bucket, so contention is limited to requests for the same key. Buckets that have not
+ * been touched for the idle timeout are dropped by {@link #evictIdle()}; a dropped bucket
+ * is indistinguishable from a full one, so eviction never loosens the limit.
+ */
+public class TokenBucketRateLimiter {
+
+    private final String name;
+    private final double capacity;
+    private final double refillPerNano;
+    private final long idleTimeoutNanos;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(String name, int capacity, Duration refillPeriod, Duration idleTimeout) {
+        this.name = name;
+        this.capacity = capacity;
+        // a full bucket refills over one period
+        this.refillPerNano = (double) capacity / refillPeriod.toNanos();
+        this.idleTimeoutNanos = Math.max(idleTimeout.toNanos(), refillPeriod.toNanos());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Takes one token for the key.
+     *
+     * @return 0 if the request is allowed, otherwise the number of seconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+        synchronized (bucket) {
+            bucket.refill(now, capacity, refillPerNano);
+            bucket.lastSeen = now;
+            if (bucket.tokens >= 1.0) {
+                bucket.tokens -= 1.0;
+                return 0;
+            }
+            double missingNanos = (1.0 - bucket.tokens) / refillPerNano;
+            return Math.max(1, (long) Math.ceil(missingNanos / 1_000_000_000d));
+        }
+    }
+
+    public int trackedKeys() {
+        return buckets.size();
+    }
+
+    // drops buckets idle long enough to have refilled completely
+    public int evictIdle() {
+        long cutoff = System.nanoTime() - idleTimeoutNanos;
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.lastSeen - cutoff < 0);
+        return before - buckets.size();
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long lastRefill;
+        volatile long lastSeen;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+            this.lastSeen = now;
+        }
+
+        void refill(long now, double capacity, double refillPerNano) {
+            long elapsed = now - lastRefill;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+                lastRefill = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.crud.confg;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+	private final TokenRevocationList revocations = new TokenRevocationList();
+
+	@Test
+	void opaqueTokenResolvesToItsSession() {
+		JwtUtil jwtUtil = jwtUtil("opaque", 100);
+
+		String token = jwtUtil.generateToken("user@example.com", "USER");
+		TokenSession session = jwtUtil.resolve(token);
+
+		assertThat(token).hasSize(8).isAlphanumeric();
+		assertThat(session.getEmail()).isEqualTo("user@example.com");
+		assertThat(session.getRole()).isEqualTo("USER");
+		assertThat(jwtUtil.validateToken(token, "user@example.com")).isTrue();
+		assertThat(jwtUtil.validateToken(token, "other@example.com")).isFalse();
+	}
+
+	@Test
+	void unknownOrMalformedTokensDoNotResolve() {
+		JwtUtil jwtUtil = jwtUtil("opaque", 100);
+
+		assertThat(jwtUtil.resolve(null)).isNull();
+		assertThat(jwtUtil.resolve("short")).isNull();
+		assertThat(jwtUtil.resolve("abc-efgh")).isNull();
+		assertThat(jwtUtil.resolve("Abcdefgh")).isNull();
+	}
+
+	@Test
+	void newLoginReplacesThePreviousToken() {
+		JwtUtil jwtUtil = jwtUtil("opaque", 100);
+
+		String first = jwtUtil.generateToken("user@example.com", "USER");
+		String second = jwtUtil.generateToken("user@example.com", "USER");
+
+		assertThat(jwtUtil.resolve(first)).isNull();
+		assertThat(jwtUtil.resolve(second)).isNotNull();
+		assertThat(jwtUtil.activeSessions()).isEqualTo(1);
+	}
+
+	@Test
+	void logoutAndRevokeAllDropOpaqueSessions() {
+		JwtUtil jwtUtil = jwtUtil("opaque", 100);
+		String loggedOut = jwtUtil.generateToken("a@example.com", "USER");
+		String revoked = jwtUtil.generateToken("b@example.com", "ADMIN");
+
+		assertThat(jwtUtil.revoke(loggedOut)).isTrue();
+		assertThat(jwtUtil.revoke(loggedOut)).as("already gone").isFalse();
+		jwtUtil.revokeAllFor("b@example.com");
+
+		assertThat(jwtUtil.resolve(loggedOut)).isNull();
+		assertThat(jwtUtil.resolve(revoked)).isNull();
+		assertThat(jwtUtil.activeSessions()).isZero();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void sessionCapDropsTheOldestSession() throws InterruptedException {
+		JwtUtil jwtUtil = jwtUtil("opaque", 2);
+
+		// a few ms apart, so the deadlines differ
+		String oldest = jwtUtil.generateToken("a@example.com", "USER");
+		Thread.sleep(5);
+		String middle = jwtUtil.generateToken("b@example.com", "USER");
+		Thread.sleep(5);
+		String newest = jwtUtil.generateToken("c@example.com", "USER");
+
+		assertThat(jwtUtil.activeSessions()).isEqualTo(2);
+		assertThat(jwtUtil.resolve(oldest)).isNull();
+		assertThat(jwtUtil.resolve(middle)).isNotNull();
+		assertThat(jwtUtil.resolve(newest)).isNotNull();
+		// the evicted session is unlinked from its email too
+		Map<String, String> tokensByEmail = (Map<String, String>) ReflectionTestUtils.getField(jwtUtil, "tokensByEmail");
+		assertThat(tokensByEmail).containsOnlyKeys("b@example.com", "c@example.com");
+	}
+
+	@Test
+	void signedTokenCarriesEmailAndRole() {
+		JwtUtil jwtUtil = jwtUtil("signed", 100);
+
+		String token = jwtUtil.generateToken("admin@example.com", "SUPER_ADMIN");
+		TokenSession session = jwtUtil.resolve(token);
+
+		assertThat(token.split("\\.")).hasSize(3);
+		assertThat(session.getEmail()).isEqualTo("admin@example.com");
+		assertThat(session.getRole()).isEqualTo("SUPER_ADMIN");
+		assertThat(session.getExpiresAt()).isAfter(session.getIssuedAt());
+		assertThat(jwtUtil.activeSessions()).as("nothing held in memory").isZero();
+	}
+
+	@Test
+	void tamperedSignedTokenIsRejected() {
+		JwtUtil jwtUtil = jwtUtil("signed", 100);
+		String token = jwtUtil.generateToken("admin@example.com", "ADMIN");
+		String[] parts = token.split("\\.");
+		String forged = jwtUtil("signed", 100).generateToken("admin@example.com", "SUPER_ADMIN").split("\\.")[1];
+
+		assertThat(jwtUtil.resolve(parts[0] + "." + forged + "." + parts[2])).isNull();
+		assertThat(jwtUtil.resolve(token.substring(0, token.length() - 2))).isNull();
+	}
+
+	@Test
+	void revokedSignedTokensStopResolving() {
+		JwtUtil jwtUtil = jwtUtil("signed", 100);
+		String loggedOut = jwtUtil.generateToken("a@example.com", "USER");
+		String kept = jwtUtil.generateToken("b@example.com", "USER");
+
+		assertThat(jwtUtil.revoke(loggedOut)).isTrue();
+
+		assertThat(jwtUtil.resolve(loggedOut)).isNull();
+		assertThat(jwtUtil.resolve(kept)).isNotNull();
+	}
+
+	@Test
+	void revokeAllForBlocksEverySignedTokenIssuedSoFar() {
+		JwtUtil jwtUtil = jwtUtil("signed", 100);
+		String first = jwtUtil.generateToken("a@example.com", "USER");
+		String second = jwtUtil.generateToken("a@example.com", "USER");
+		String other = jwtUtil.generateToken("b@example.com", "USER");
+
+		jwtUtil.revokeAllFor("a@example.com");
+
+		assertThat(jwtUtil.resolve(first)).isNull();
+		assertThat(jwtUtil.resolve(second)).isNull();
+		assertThat(jwtUtil.resolve(other)).isNotNull();
+	}
+
+	private JwtUtil jwtUtil(String mode, int maxSessions) {
+		JwtUtil jwtUtil = new JwtUtil();
+		ReflectionTestUtils.setField(jwtUtil, "mode", mode);
+		ReflectionTestUtils.setField(jwtUtil, "secret", "");
+		ReflectionTestUtils.setField(jwtUtil, "expirationMinutes", 60L);
+		ReflectionTestUtils.setField(jwtUtil, "sessionIdleMinutes", 60L);
+		ReflectionTestUtils.setField(jwtUtil, "maxSessions", maxSessions);
+		ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(jwtUtil, "revocations", revocations);
+		jwtUtil.init();
+		return jwtUtil;
+	}
+}
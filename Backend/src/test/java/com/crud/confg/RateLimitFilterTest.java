@@ -0,0 +1,128 @@
+package com.crud.confg;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+	private RateLimitFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		filter = new RateLimitFilter();
+		ReflectionTestUtils.setField(filter, "ipCapacity", 5);
+		ReflectionTestUtils.setField(filter, "ipRefillSeconds", 60L);
+		ReflectionTestUtils.setField(filter, "emailCapacity", 2);
+		ReflectionTestUtils.setField(filter, "emailRefillSeconds", 60L);
+		ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+		filter.init();
+	}
+
+	@Test
+	void allowedRequestReachesTheControllerWithItsBody() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+
+		MockHttpServletResponse response = post("/api/auth/login", "1.1.1.1", "{\"email\":\"a@example.com\"}", chain);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8))
+				.isEqualTo("{\"email\":\"a@example.com\"}");
+	}
+
+	@Test
+	void emailLimitAppliesAcrossAddressesAndCase() throws Exception {
+		assertThat(post("/api/auth/login", "1.1.1.1", "{\"email\":\"a@example.com\"}").getStatus()).isEqualTo(200);
+		assertThat(post("/api/auth/verify-otp", "2.2.2.2", "{\"email\":\" A@Example.com\"}").getStatus()).isEqualTo(200);
+
+		MockHttpServletResponse rejected = post("/api/auth/login", "3.3.3.3", "{\"email\":\"a@example.com\"}");
+
+		assertThat(rejected.getStatus()).isEqualTo(429);
+		assertThat(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER))).isBetween(1L, 30L);
+		assertThat(rejected.getContentAsString()).contains("Too Many Requests");
+		assertThat(post("/api/auth/login", "3.3.3.3", "{\"email\":\"b@example.com\"}").getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void ipLimitAppliesWhateverTheEmail() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			assertThat(post("/api/admin/login", "1.1.1.1", "{\"email\":\"user" + i + "@example.com\"}").getStatus())
+					.isEqualTo(200);
+		}
+
+		assertThat(post("/api/admin/login", "1.1.1.1", "{\"email\":\"new@example.com\"}").getStatus()).isEqualTo(429);
+		assertThat(post("/api/admin/login", "2.2.2.2", "{\"email\":\"new@example.com\"}").getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void otherEndpointsAreNotLimited() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			assertThat(post("/api/user-policy/all", "1.1.1.1", "{\"email\":\"a@example.com\"}").getStatus()).isEqualTo(200);
+		}
+	}
+
+	@Test
+	void oversizedBodyIsRefused() throws Exception {
+		String body = "{\"email\":\"a@example.com\",\"pad\":\"" + "x".repeat(9000) + "\"}";
+
+		assertThat(post("/api/auth/login", "1.1.1.1", body).getStatus()).isEqualTo(413);
+	}
+
+	@Test
+	void cachedBodySupportsNonBlockingReads() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		post("/api/auth/login", "1.1.1.1", "{\"email\":\"a@example.com\"}", chain);
+		ServletInputStream in = chain.getRequest().getInputStream();
+		List<String> events = new ArrayList<>();
+
+		in.setReadListener(new ReadListener() {
+			@Override
+			public void onDataAvailable() throws IOException {
+				events.add("data:" + new String(in.readAllBytes(), StandardCharsets.UTF_8));
+			}
+
+			@Override
+			public void onAllDataRead() {
+				events.add("done");
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				events.add("error");
+			}
+		});
+
+		assertThat(events).containsExactly("data:{\"email\":\"a@example.com\"}", "done");
+	}
+
+	private MockHttpServletResponse post(String path, String ip, String body) throws ServletException, IOException {
+		return post(path, ip, body, new MockFilterChain());
+	}
+
+	private MockHttpServletResponse post(String path, String ip, String body, MockFilterChain chain)
+			throws ServletException, IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+		request.setServletPath(path);
+		request.setRemoteAddr(ip);
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+}
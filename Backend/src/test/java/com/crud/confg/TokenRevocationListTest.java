@@ -0,0 +1,67 @@
+package com.crud.confg;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationListTest {
+
+	private final TokenRevocationList revocations = new TokenRevocationList();
+
+	@Test
+	void onlyRevokedTokenIdsAreRevoked() {
+		long inAnHour = System.currentTimeMillis() + 3_600_000;
+		for (int i = 0; i < 1000; i++) {
+			revocations.revoke("revoked-" + i, inAnHour);
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			assertThat(revocations.isRevoked(session("revoked-" + i, "a@example.com", Instant.now()))).isTrue();
+			// a Bloom filter false positive must still be settled by the exact set
+			assertThat(revocations.isRevoked(session("live-" + i, "a@example.com", Instant.now()))).isFalse();
+		}
+	}
+
+	@Test
+	void purgeDropsTokensThatHaveExpiredAnyway() {
+		revocations.revoke("expired", System.currentTimeMillis() - 1);
+		revocations.revoke("current", System.currentTimeMillis() + 3_600_000);
+
+		revocations.purgeExpired(3_600_000);
+
+		assertThat(revocations.size()).isEqualTo(1);
+		assertThat(revocations.isRevoked(session("expired", "a@example.com", Instant.now()))).isFalse();
+		assertThat(revocations.isRevoked(session("current", "a@example.com", Instant.now()))).isTrue();
+	}
+
+	@Test
+	void emailCutoffRevokesTokensIssuedUpToItsSecond() {
+		Instant revokedAt = Instant.ofEpochMilli(1_700_000_000_700L);
+		Instant sameSecond = revokedAt.truncatedTo(ChronoUnit.SECONDS);   // what iat holds for a token issued at .300
+		revocations.revokeIssuedBefore("a@example.com", revokedAt.toEpochMilli());
+
+		assertThat(revocations.isRevoked(session("t1", "a@example.com", sameSecond.minusSeconds(60)))).isTrue();
+		assertThat(revocations.isRevoked(session("t2", "a@example.com", sameSecond))).isTrue();
+		assertThat(revocations.isRevoked(session("t3", "a@example.com", sameSecond.plusSeconds(1)))).isFalse();
+		assertThat(revocations.isRevoked(session("t4", "b@example.com", sameSecond.minusSeconds(60)))).isFalse();
+	}
+
+	@Test
+	void emailCutoffOutlivesOnlyTheLongestTokenLifetime() {
+		revocations.revokeIssuedBefore("a@example.com", System.currentTimeMillis() - 10_000);
+		Instant longAgo = Instant.now().minusSeconds(3600);
+
+		revocations.purgeExpired(60_000);
+		assertThat(revocations.isRevoked(session("t1", "a@example.com", longAgo))).as("kept: within lifetime").isTrue();
+
+		revocations.purgeExpired(1_000);
+		assertThat(revocations.isRevoked(session("t1", "a@example.com", longAgo))).isFalse();
+	}
+
+	private static TokenSession session(String tokenId, String email, Instant issuedAt) {
+		return new TokenSession("token", tokenId, email, "USER", issuedAt, issuedAt.plusSeconds(3600));
+	}
+}
@@ -0,0 +1,178 @@
+package com.crud.serviceimpl;
+
+import com.crud.entity.MailOutbox;
+import com.crud.enums.OutboxStatus;
+import com.crud.repository.MailOutboxRepository;
+import com.crud.util.SmtpConnectionPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+// Claims, sends and settles outbox rows against H2; the sender threads commit on their own, so no test transaction
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:mail-outbox;MODE=MySQL;NON_KEYWORDS=USER,VALUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"mail.outbox.poll-interval-ms=3600000",
+		"mail.outbox.threads=2",
+		"mail.outbox.max-attempts=2",
+		"mail.outbox.initial-backoff-ms=60000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({MailOutboxDispatcher.class, SimpleMeterRegistry.class})
+class MailOutboxDispatcherTest {
+
+	@Autowired
+	private MailOutboxDispatcher dispatcher;
+
+	@Autowired
+	private MailOutboxRepository outboxRepository;
+
+	@MockitoBean
+	private SmtpConnectionPool smtpPool;
+
+	// needed by CrudOperationApplication, which this slice still loads
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	@AfterEach
+	void tearDown() {
+		outboxRepository.deleteAll();
+	}
+
+	@Test
+	void dueRowsAreSentAndMarkedSent() {
+		failingFor();
+		List<Long> ids = List.of(pending("a@example.com"), pending("b@example.com"), pending("c@example.com"));
+
+		poll();
+
+		assertThat(ids).allSatisfy(id -> {
+			MailOutbox mail = row(id);
+			assertThat(mail.getStatus()).isEqualTo(OutboxStatus.SENT);
+			assertThat(mail.getAttempts()).isEqualTo(1);
+			assertThat(mail.getSentAt()).isNotNull();
+			assertThat(mail.getLockedUntil()).isNull();
+		});
+	}
+
+	@Test
+	void failedRowIsRetriedLaterWithItsError() {
+		failingFor("bad@example.com");
+		Long bad = pending("bad@example.com");
+		Long good = pending("good@example.com");
+
+		poll();
+
+		MailOutbox retried = row(bad);
+		assertThat(retried.getStatus()).isEqualTo(OutboxStatus.PENDING);
+		assertThat(retried.getAttempts()).isEqualTo(1);
+		assertThat(retried.getLastError()).contains("mailbox unavailable");
+		assertThat(retried.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(50));
+		assertThat(retried.getLockedUntil()).isNull();
+		assertThat(row(good).getStatus()).isEqualTo(OutboxStatus.SENT);
+	}
+
+	@Test
+	void lastFailedAttemptLeavesTheRowDead() {
+		failingFor("bad@example.com");
+		MailOutbox mail = new MailOutbox("bad@example.com", "Subject", "Body");
+		mail.setAttempts(1);
+		Long id = outboxRepository.save(mail).getId();
+
+		poll();
+
+		assertThat(row(id).getStatus()).isEqualTo(OutboxStatus.DEAD);
+		assertThat(row(id).getAttempts()).isEqualTo(2);
+	}
+
+	@Test
+	void batchThatThrowsSettlesEveryRow() {
+		when(smtpPool.sendBatch(anyList())).thenThrow(new IllegalStateException("pool bug"));
+		List<Long> ids = List.of(pending("a@example.com"), pending("b@example.com"));
+
+		poll();
+
+		assertThat(ids).allSatisfy(id -> {
+			MailOutbox mail = row(id);
+			assertThat(mail.getStatus()).isEqualTo(OutboxStatus.PENDING);
+			assertThat(mail.getAttempts()).isEqualTo(1);
+			assertThat(mail.getLastError()).isEqualTo("pool bug");
+			assertThat(mail.getLockedUntil()).isNull();
+		});
+	}
+
+	@Test
+	void onlyDueRowsAndLapsedLeasesAreClaimed() {
+		failingFor();
+		Long due = pending("due@example.com");
+		Long lapsed = sending("lapsed@example.com", LocalDateTime.now().minusMinutes(1));
+		Long leased = sending("leased@example.com", LocalDateTime.now().plusMinutes(5));
+		MailOutbox later = new MailOutbox("later@example.com", "Subject", "Body");
+		later.setNextAttemptAt(LocalDateTime.now().plusMinutes(5));
+		Long notYetDue = outboxRepository.save(later).getId();
+
+		poll();
+
+		assertThat(row(due).getStatus()).isEqualTo(OutboxStatus.SENT);
+		assertThat(row(lapsed).getStatus()).as("its sender died mid-send").isEqualTo(OutboxStatus.SENT);
+		assertThat(row(leased).getStatus()).isEqualTo(OutboxStatus.SENDING);
+		assertThat(row(notYetDue).getStatus()).isEqualTo(OutboxStatus.PENDING);
+		assertThat(row(notYetDue).getAttempts()).isZero();
+	}
+
+	private void poll() {
+		ReflectionTestUtils.invokeMethod(dispatcher, "poll");
+	}
+
+	// the pool "sends" every message except those to the given recipients
+	private void failingFor(String... recipients) {
+		List<String> failing = List.of(recipients);
+		when(smtpPool.sendBatch(anyList())).thenAnswer(invocation -> {
+			List<SimpleMailMessage> messages = invocation.getArgument(0);
+			MailException[] failures = new MailException[messages.size()];
+			for (int i = 0; i < messages.size(); i++) {
+				if (failing.contains(messages.get(i).getTo()[0])) {
+					failures[i] = new MailSendException("550 mailbox unavailable");
+				}
+			}
+			return failures;
+		});
+	}
+
+	private Long pending(String recipient) {
+		return outboxRepository.save(new MailOutbox(recipient, "Subject", "Body")).getId();
+	}
+
+	private Long sending(String recipient, LocalDateTime lockedUntil) {
+		MailOutbox mail = new MailOutbox(recipient, "Subject", "Body");
+		mail.setStatus(OutboxStatus.SENDING);
+		mail.setLockedUntil(lockedUntil);
+		return outboxRepository.save(mail).getId();
+	}
+
+	private MailOutbox row(Long id) {
+		return outboxRepository.findById(id).orElseThrow();
+	}
+}
@@ -0,0 +1,93 @@
+package com.crud.serviceimpl;
+
+import com.crud.enums.OtpPurpose;
+import com.crud.enums.OtpVerification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OtpServiceImplTest {
+
+	private static final OtpPurpose PURPOSE = OtpPurpose.USER_LOGIN;
+
+	@Test
+	void correctOtpIsValidOnce() {
+		OtpServiceImpl otpService = otpService(60, 5);
+		String otp = otpService.issue(PURPOSE, "user@example.com");
+
+		assertThat(otp).hasSize(6).containsOnlyDigits();
+		assertThat(otpService.verify(PURPOSE, " User@Example.com ", " " + otp + " ")).isEqualTo(OtpVerification.VALID);
+		assertThat(otpService.verify(PURPOSE, "user@example.com", otp)).isEqualTo(OtpVerification.EXPIRED);
+	}
+
+	@Test
+	void wrongOrBlankOtpIsInvalid() {
+		OtpServiceImpl otpService = otpService(60, 5);
+		String otp = otpService.issue(PURPOSE, "user@example.com");
+
+		assertThat(otpService.verify(PURPOSE, "user@example.com", wrong(otp))).isEqualTo(OtpVerification.INVALID);
+		assertThat(otpService.verify(PURPOSE, "user@example.com", " ")).isEqualTo(OtpVerification.INVALID);
+		assertThat(otpService.verify(PURPOSE, "user@example.com", otp)).isEqualTo(OtpVerification.VALID);
+	}
+
+	@Test
+	void tooManyWrongAttemptsLockTheOtp() {
+		OtpServiceImpl otpService = otpService(60, 3);
+		String otp = otpService.issue(PURPOSE, "user@example.com");
+
+		assertThat(otpService.verify(PURPOSE, "user@example.com", wrong(otp))).isEqualTo(OtpVerification.INVALID);
+		assertThat(otpService.verify(PURPOSE, "user@example.com", wrong(otp))).isEqualTo(OtpVerification.INVALID);
+		assertThat(otpService.verify(PURPOSE, "user@example.com", wrong(otp))).isEqualTo(OtpVerification.LOCKED);
+		// the right code no longer helps: a new one must be issued
+		assertThat(otpService.verify(PURPOSE, "user@example.com", otp)).isEqualTo(OtpVerification.EXPIRED);
+	}
+
+	@Test
+	void reissuingStartsAFreshOtp() {
+		OtpServiceImpl otpService = otpService(60, 2);
+		String first = otpService.issue(PURPOSE, "user@example.com");
+		otpService.verify(PURPOSE, "user@example.com", wrong(first));
+
+		String second = otpService.issue(PURPOSE, "user@example.com");
+
+		// one more wrong attempt would have locked the first OTP
+		assertThat(otpService.verify(PURPOSE, "user@example.com", wrong(second))).isEqualTo(OtpVerification.INVALID);
+		assertThat(otpService.verify(PURPOSE, "user@example.com", second)).isEqualTo(OtpVerification.VALID);
+	}
+
+	@Test
+	void otpExpiresAfterItsTtl() throws InterruptedException {
+		OtpServiceImpl otpService = otpService(1, 5);
+		String otp = otpService.issue(PURPOSE, "user@example.com");
+
+		Thread.sleep(1100);
+
+		assertThat(otpService.verify(PURPOSE, "user@example.com", otp)).isEqualTo(OtpVerification.EXPIRED);
+	}
+
+	@Test
+	void otpsAreKeptPerEmailAndPurpose() {
+		OtpServiceImpl otpService = otpService(60, 5);
+		String otp = otpService.issue(PURPOSE, "a@example.com");
+
+		assertThat(otpService.verify(PURPOSE, "b@example.com", otp)).isEqualTo(OtpVerification.EXPIRED);
+		assertThat(otpService.verify(OtpPurpose.ADMIN_LOGIN, "a@example.com", otp)).isEqualTo(OtpVerification.EXPIRED);
+		assertThat(otpService.verify(PURPOSE, "a@example.com", otp)).isEqualTo(OtpVerification.VALID);
+	}
+
+	private static OtpServiceImpl otpService(long ttlSeconds, int maxAttempts) {
+		OtpServiceImpl otpService = new OtpServiceImpl();
+		ReflectionTestUtils.setField(otpService, "ttlSeconds", ttlSeconds);
+		ReflectionTestUtils.setField(otpService, "maxAttempts", maxAttempts);
+		ReflectionTestUtils.setField(otpService, "maxPending", 1000);
+		ReflectionTestUtils.setField(otpService, "meterRegistry", new SimpleMeterRegistry());
+		otpService.init();
+		return otpService;
+	}
+
+	private static String wrong(String otp) {
+		return otp.equals("000000") ? "000001" : "000000";
+	}
+}
@@ -0,0 +1,121 @@
+package com.crud.serviceimpl;
+
+import com.crud.entity.PolicyPlan;
+import com.crud.entity.UserPolicy;
+import com.crud.repository.JobLockRepository;
+import com.crud.util.ClusterLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:policy-expiry;MODE=MySQL;NON_KEYWORDS=USER,VALUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"policy.expiry.chunk-size=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PolicyExpiryJob.class, ClusterLock.class, SimpleMeterRegistry.class})
+class PolicyExpiryJobTest {
+
+	@Autowired
+	private PolicyExpiryJob job;
+
+	@Autowired
+	private JobLockRepository jobLockRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	// needed by CrudOperationApplication, which this slice still loads
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	private final List<Long> ended = new ArrayList<>();
+	private Long current;
+	private Long pending;
+
+	@BeforeEach
+	void setUp() {
+		PolicyPlan plan = new PolicyPlan();
+		plan.setPolicyName("Gold");
+		entityManager.persist(plan);
+
+		LocalDate today = LocalDate.now();
+		for (int i = 1; i <= 5; i++) {
+			ended.add(policy(plan, "ACTIVE", today.minusDays(i)));
+		}
+		current = policy(plan, "ACTIVE", today);
+		pending = policy(plan, "PENDING", today.minusDays(1));
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void expiresEndedActivePoliciesInChunks() {
+		// 5 rows in chunks of 2: the run keeps going until a chunk comes back short
+		assertThat(job.run()).isEqualTo(5);
+
+		entityManager.clear();
+		assertThat(ended).allSatisfy(id -> assertThat(status(id)).isEqualTo("INACTIVE"));
+		assertThat(status(current)).as("ends today").isEqualTo("ACTIVE");
+		assertThat(status(pending)).isEqualTo("PENDING");
+	}
+
+	@Test
+	void secondRunFindsNothing() {
+		job.run();
+
+		assertThat(job.run()).isZero();
+	}
+
+	@Test
+	void skipsWhileAnotherNodeHoldsTheLease() {
+		LocalDateTime now = LocalDateTime.now();
+		jobLockRepository.createIfAbsent("policy-expiry", now.minusMinutes(1));
+		jobLockRepository.claim("policy-expiry", "other-node", now, now.plusMinutes(30));
+
+		assertThat(job.run()).isEqualTo(-1);
+
+		entityManager.clear();
+		assertThat(ended).allSatisfy(id -> assertThat(status(id)).isEqualTo("ACTIVE"));
+	}
+
+	@Test
+	void releasesTheLeaseAfterARun() {
+		job.run();
+
+		assertThat(job.run()).as("not locked out by its own earlier run").isZero();
+		assertThat(jobLockRepository.findById("policy-expiry").orElseThrow().getLockedUntil())
+				.isBeforeOrEqualTo(LocalDateTime.now());
+	}
+
+	private Long policy(PolicyPlan plan, String status, LocalDate endDate) {
+		return entityManager.persist(UserPolicy.builder()
+				.userId(1L)
+				.policyPlan(plan)
+				.policyStatus(status)
+				.startDate(endDate.minusYears(1))
+				.endDate(endDate)
+				.build()).getId();
+	}
+
+	private String status(Long id) {
+		return entityManager.find(UserPolicy.class, id).getPolicyStatus();
+	}
+}
@@ -0,0 +1,163 @@
+package com.crud.serviceimpl;
+
+import com.crud.dto.CursorPage;
+import com.crud.dto.UserDetailsResponse;
+import com.crud.dto.UserPolicyResponse;
+import com.crud.entity.Admin;
+import com.crud.entity.PolicyPlan;
+import com.crud.entity.User;
+import com.crud.entity.UserPolicy;
+import com.crud.entity.UserProfile;
+import com.crud.repository.UserPolicyRepository;
+import com.crud.service.UserPolicyService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Every user-policy listing must be one statement, however many rows and plans it covers
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:user-policy-queries;MODE=MySQL;NON_KEYWORDS=USER,VALUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserPolicyImpl.class)
+class UserPolicyQueryCountTest {
+
+	@Autowired
+	private UserPolicyService userPolicyService;
+
+	@Autowired
+	private UserPolicyRepository userPolicyRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	// needed by CrudOperationApplication, which this slice still loads
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	private Statistics statistics;
+	private Admin admin;
+	private PolicyPlan gold;
+	private Long buyerId;
+
+	@BeforeEach
+	void setUp() {
+		admin = new Admin();
+		admin.setEmail("admin@example.com");
+		entityManager.persist(admin);
+
+		gold = plan("Gold");
+		PolicyPlan silver = plan("Silver");
+		for (int i = 0; i < 3; i++) {
+			User user = new User();
+			user.setEmail("user" + i + "@example.com");
+			entityManager.persist(user);
+			UserProfile profile = new UserProfile();
+			profile.setName("user" + i);
+			profile.setUser(user);
+			entityManager.persist(profile);
+			buyerId = profile.getId();
+
+			policy(profile.getId(), gold, "ACTIVE");
+			policy(profile.getId(), silver, "PENDING");
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void allPoliciesStreamInOneStatement() {
+		List<UserPolicyResponse> policies = singleStatement(() -> {
+			List<UserPolicyResponse> exported = new ArrayList<>();
+			userPolicyService.exportAllPolicies(exported::add);
+			return exported;
+		});
+
+		assertThat(policies).hasSize(6);
+		assertThat(policies).extracting(UserPolicyResponse::getPolicyName).containsOnly("Gold", "Silver");
+		assertThat(policies).extracting(UserPolicyResponse::getId).isSorted();
+	}
+
+	@Test
+	void policyPagesInOneStatementEach() {
+		CursorPage<UserPolicyResponse> first = singleStatement(() -> userPolicyService.getPolicyPage(null, 4));
+		CursorPage<UserPolicyResponse> second = singleStatement(() -> userPolicyService.getPolicyPage(first.getNextCursor(), 4));
+
+		assertThat(first.getItems()).hasSize(4);
+		assertThat(second.getItems()).hasSize(2);
+		assertThat(second.getNextCursor()).isNull();
+		assertThat(second.getItems().get(0).getId()).isGreaterThan(first.getNextCursor());
+	}
+
+	@Test
+	void userPoliciesInOneStatement() {
+		List<UserPolicyResponse> policies = singleStatement(() -> userPolicyService.getAllPoliciesByUserId(buyerId));
+
+		assertThat(policies).extracting(UserPolicyResponse::getPolicyName).containsExactly("Gold", "Silver");
+	}
+
+	@Test
+	void adminPoliciesByStatusInOneStatement() {
+		List<UserPolicyResponse> pending = singleStatement(() -> userPolicyService.getPendingPoliciesByAdminId(admin.getId()));
+		List<UserPolicyResponse> active = singleStatement(() -> userPolicyService.getActivePoliciesByAdminId(admin.getId()));
+
+		assertThat(pending).hasSize(3).allSatisfy(p -> assertThat(p.getPolicyName()).isEqualTo("Silver"));
+		assertThat(active).hasSize(3).allSatisfy(p -> assertThat(p.getPolicyName()).isEqualTo("Gold"));
+	}
+
+	@Test
+	void planBuyersInOneStatement() {
+		List<UserDetailsResponse> buyers = singleStatement(() -> userPolicyRepository.findBuyersByPlanId(gold.getId()));
+
+		assertThat(buyers).extracting(UserDetailsResponse::getEmail)
+				.containsExactly("user0@example.com", "user1@example.com", "user2@example.com");
+	}
+
+	private <T> T singleStatement(Supplier<T> listing) {
+		statistics.clear();
+		T result = listing.get();
+		assertThat(statistics.getPrepareStatementCount()).as("statements issued").isEqualTo(1);
+		return result;
+	}
+
+	private PolicyPlan plan(String name) {
+		PolicyPlan plan = new PolicyPlan();
+		plan.setPolicyName(name);
+		plan.setPolicyType("HEALTH");
+		plan.setDurationInYears(1);
+		plan.setAdmin(admin);
+		return entityManager.persist(plan);
+	}
+
+	private void policy(Long userId, PolicyPlan plan, String status) {
+		entityManager.persist(UserPolicy.builder()
+				.userId(userId)
+				.policyPlan(plan)
+				.policyStatus(status)
+				.startDate(LocalDate.now())
+				.endDate(LocalDate.now().plusYears(1))
+				.build());
+	}
+}
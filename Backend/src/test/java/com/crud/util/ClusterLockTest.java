@@ -0,0 +1,93 @@
+package com.crud.util;
+
+import com.crud.repository.JobLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two ClusterLock instances stand in for two nodes sharing the job_lock table
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:cluster-lock;MODE=MySQL;NON_KEYWORDS=USER,VALUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ClusterLock.class)
+class ClusterLockTest {
+
+	private static final Duration LEASE = Duration.ofMinutes(30);
+
+	@Autowired
+	private ClusterLock node;
+
+	@Autowired
+	private JobLockRepository jobLockRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	// needed by CrudOperationApplication, which this slice still loads
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	private ClusterLock otherNode;
+
+	@BeforeEach
+	void setUp() {
+		otherNode = new ClusterLock();
+		ReflectionTestUtils.setField(otherNode, "jobLockRepository", jobLockRepository);
+		ReflectionTestUtils.setField(otherNode, "transactionTemplate", transactionTemplate);
+	}
+
+	@Test
+	void firstUseCreatesTheLockAndTakesIt() {
+		assertThat(node.tryAcquire("job", LEASE)).isTrue();
+		assertThat(jobLockRepository.findById("job")).isPresent();
+	}
+
+	@Test
+	void heldLeaseShutsOutOtherNodesUntilReleased() {
+		assertThat(node.tryAcquire("job", LEASE)).isTrue();
+		assertThat(otherNode.tryAcquire("job", LEASE)).isFalse();
+		assertThat(node.tryAcquire("job", LEASE)).as("not re-entrant").isFalse();
+
+		node.release("job");
+
+		assertThat(otherNode.tryAcquire("job", LEASE)).isTrue();
+	}
+
+	@Test
+	void lapsedLeaseCanBeTakenOver() {
+		assertThat(node.tryAcquire("job", Duration.ZERO)).isTrue();
+
+		assertThat(otherNode.tryAcquire("job", LEASE)).isTrue();
+	}
+
+	@Test
+	void releaseAfterATakeoverLeavesTheNewLeaseAlone() {
+		node.tryAcquire("job", Duration.ZERO);
+		otherNode.tryAcquire("job", LEASE);
+
+		node.release("job");
+
+		assertThat(node.tryAcquire("job", LEASE)).isFalse();
+	}
+
+	@Test
+	void locksAreIndependentByName() {
+		assertThat(node.tryAcquire("job", LEASE)).isTrue();
+		assertThat(otherNode.tryAcquire("other-job", LEASE)).isTrue();
+	}
+}
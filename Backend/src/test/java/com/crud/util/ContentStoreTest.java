@@ -0,0 +1,180 @@
+package com.crud.util;
+
+import com.crud.entity.ContentBlob;
+import com.crud.repository.ContentBlobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Reference counting, dedupe and the sweeps of the content-addressed store, on H2 and a temp directory
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:content-store;MODE=MySQL;NON_KEYWORDS=USER,VALUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"storage.blobs.sweep-grace-minutes=60"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ContentStore.class, LocalBlobStore.class, SimpleMeterRegistry.class})
+class ContentStoreTest {
+
+	private static final long MAX_BYTES = 1024 * 1024;
+
+	@Autowired
+	private ContentStore contentStore;
+
+	@Autowired
+	private BlobStore blobStore;
+
+	@Autowired
+	private ContentBlobRepository blobRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	// needed by CrudOperationApplication, which this slice still loads
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) throws IOException {
+		Path dir = Files.createTempDirectory("content-store-test");
+		registry.add("storage.local.dir", dir::toString);
+	}
+
+	@Test
+	void identicalUploadsAreStoredOnceAndCounted() throws IOException {
+		String content = unique();
+		StoredBlob first = store(content);
+		StoredBlob second = store(content);
+
+		assertThat(first.isDeduplicated()).isFalse();
+		assertThat(second.isDeduplicated()).isTrue();
+		assertThat(second.getKey()).isEqualTo(first.getKey());
+		assertThat(blobStore.exists(first.getKey())).isTrue();
+		assertThat(blob(first).getRefCount()).isEqualTo(2);
+	}
+
+	@Test
+	void releaseCountsDownAndMarksTheLastRelease() throws IOException {
+		StoredBlob stored = store(unique());
+		store(stored);
+
+		contentStore.release(stored.getHash());
+		assertThat(blob(stored).getRefCount()).isEqualTo(1);
+		assertThat(blob(stored).getReleasedAt()).isNull();
+
+		contentStore.release(stored.getHash());
+		assertThat(blob(stored).getRefCount()).isZero();
+		assertThat(blob(stored).getReleasedAt()).isNotNull();
+
+		// one release too many must not go negative
+		contentStore.release(stored.getHash());
+		assertThat(blob(stored).getRefCount()).isZero();
+	}
+
+	@Test
+	void reacquiringAnUnreferencedBlobKeepsIt() throws IOException {
+		StoredBlob stored = store(unique());
+		contentStore.release(stored.getHash());
+
+		StoredBlob again = store(stored);
+
+		assertThat(again.isDeduplicated()).isTrue();
+		assertThat(blob(stored).getRefCount()).isEqualTo(1);
+		assertThat(blob(stored).getReleasedAt()).isNull();
+	}
+
+	@Test
+	void sweepRemovesOnlyBlobsUnreferencedPastTheGracePeriod() throws IOException {
+		StoredBlob referenced = store(unique());
+		StoredBlob recentlyReleased = store(unique());
+		StoredBlob longReleased = store(unique());
+		contentStore.release(recentlyReleased.getHash());
+		contentStore.release(longReleased.getHash());
+		ContentBlob old = blob(longReleased);
+		old.setReleasedAt(LocalDateTime.now().minusHours(2));
+		entityManager.flush();
+
+		contentStore.sweep();
+		entityManager.clear();
+
+		assertThat(blobRepository.existsById(longReleased.getHash())).isFalse();
+		assertThat(blobStore.exists(longReleased.getKey())).isFalse();
+		assertThat(blobRepository.existsById(recentlyReleased.getHash())).isTrue();
+		assertThat(blobStore.exists(recentlyReleased.getKey())).isTrue();
+		assertThat(blobStore.exists(referenced.getKey())).isTrue();
+	}
+
+	@Test
+	void unpublishDeletesOnlyBlobsThisUploadWrote() throws IOException {
+		StoredBlob written = store(unique());
+		contentStore.unpublish(written);
+		assertThat(blobStore.exists(written.getKey())).isFalse();
+
+		StoredBlob shared = store(unique());
+		StoredBlob duplicate = store(shared);
+		contentStore.unpublish(duplicate);
+		assertThat(blobStore.exists(shared.getKey())).isTrue();
+	}
+
+	@Test
+	void orphanSweepRemovesOldBlobsWithoutARow() throws IOException {
+		StoredBlob kept = store(unique());
+		String orphanHash = UUID.randomUUID().toString().replace("-", "").repeat(2);
+		String orphanKey = contentStore.keyOf(orphanHash);
+		blobStore.put(orphanKey, new ByteArrayInputStream(new byte[]{1}), 1, null);
+		String freshHash = UUID.randomUUID().toString().replace("-", "").repeat(2);
+		String freshKey = contentStore.keyOf(freshHash);
+		blobStore.put(freshKey, new ByteArrayInputStream(new byte[]{1}), 1, null);
+		FileTime twoHoursAgo = FileTime.fromMillis(System.currentTimeMillis() - Duration.ofHours(2).toMillis());
+		Files.setLastModifiedTime(blobStore.localPath(orphanKey).orElseThrow(), twoHoursAgo);
+		Files.setLastModifiedTime(blobStore.localPath(kept.getKey()).orElseThrow(), twoHoursAgo);
+
+		int removed = contentStore.removeOrphans();
+
+		assertThat(blobStore.exists(orphanKey)).isFalse();
+		assertThat(blobStore.exists(freshKey)).as("may still be committing").isTrue();
+		assertThat(blobStore.exists(kept.getKey())).isTrue();
+		assertThat(removed).isGreaterThanOrEqualTo(1);
+	}
+
+	private StoredBlob store(String content) throws IOException {
+		byte[] bytes = ("%PDF-" + content).getBytes(StandardCharsets.UTF_8);
+		return contentStore.store(new ByteArrayInputStream(bytes), "application/pdf", MAX_BYTES);
+	}
+
+	private StoredBlob store(StoredBlob same) throws IOException {
+		return contentStore.adopt(blobStore.localPath(same.getKey()).orElseThrow());
+	}
+
+	// every test gets its own bytes, since blobs in the directory outlive the rolled-back rows
+	private static String unique() {
+		return UUID.randomUUID().toString();
+	}
+
+	private ContentBlob blob(StoredBlob stored) {
+		entityManager.clear();
+		return blobRepository.findById(stored.getHash()).orElseThrow();
+	}
+}
@@ -0,0 +1,55 @@
+package com.crud.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringCacheTest {
+
+	private static final Duration TICK = Duration.ofMinutes(1);
+
+	@Test
+	void sizeCapEvictsTheEntryClosestToExpiry() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>("test", Duration.ofHours(1), false, 2, TICK);
+		List<String> evicted = new ArrayList<>();
+		cache.onEviction((key, value) -> evicted.add(key));
+
+		cache.put("late", "v", Duration.ofMinutes(30));
+		cache.put("soon", "v", Duration.ofMinutes(5));
+		cache.put("new", "v");
+
+		assertThat(evicted).containsExactly("soon");
+		assertThat(cache.get("late")).isEqualTo("v");
+		assertThat(cache.get("new")).isEqualTo("v");
+	}
+
+	@Test
+	void sizeCapPicksTheEarliestDeadlineWithinASharedSlot() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>("test", Duration.ofHours(1), false, 2, TICK);
+		List<String> evicted = new ArrayList<>();
+		cache.onEviction((key, value) -> evicted.add(key));
+
+		// one full turn of the 512-slot wheel apart, so both land in the same slot
+		cache.put("next-turn", "v", Duration.ofMinutes(10 + 512));
+		cache.put("this-turn", "v", Duration.ofMinutes(10));
+		cache.put("new", "v");
+
+		assertThat(evicted).containsExactly("this-turn");
+		assertThat(cache.get("next-turn")).isEqualTo("v");
+	}
+
+	@Test
+	void expiredEntriesAreMissesAndEvicted() {
+		ExpiringCache<String, String> cache = new ExpiringCache<>("test", Duration.ofHours(1), false, 10, Duration.ofMillis(1));
+		cache.put("gone", "v", Duration.ZERO);
+
+		assertThat(cache.get("gone")).isNull();
+		assertThat(cache.missCount()).isEqualTo(1);
+		assertThat(cache.evictionCount()).isEqualTo(1);
+		assertThat(cache.size()).isZero();
+	}
+}
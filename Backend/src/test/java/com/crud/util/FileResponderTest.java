@@ -0,0 +1,162 @@
+package com.crud.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileResponderTest {
+
+	private static final String CONTENT = "0123456789";
+	private static final Instant MODIFIED = Instant.parse("2024-01-01T10:00:00Z");
+
+	private final FileResponder responder = new FileResponder();
+
+	@TempDir
+	Path dir;
+
+	private Path file;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		file = Files.writeString(dir.resolve("policy.pdf"), CONTENT);
+		Files.setLastModifiedTime(file, FileTime.from(MODIFIED));
+	}
+
+	@Test
+	void fullFileWithValidators() throws IOException {
+		MockHttpServletResponse response = serve(get());
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+		assertThat(response.getContentType()).isEqualTo("application/pdf");
+		assertThat(response.getHeader(HttpHeaders.ETAG)).isNotBlank();
+		assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+	}
+
+	@Test
+	void matchingEtagIsNotModified() throws IOException {
+		String etag = serve(get()).getHeader(HttpHeaders.ETAG);
+		MockHttpServletRequest request = get();
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag);
+
+		MockHttpServletResponse response = serve(request);
+
+		assertThat(response.getStatus()).isEqualTo(304);
+		assertThat(response.getContentAsByteArray()).isEmpty();
+	}
+
+	@Test
+	void unchangedSinceIsNotModified() throws IOException {
+		MockHttpServletRequest request = get();
+		request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED));
+
+		assertThat(serve(request).getStatus()).isEqualTo(304);
+	}
+
+	@Test
+	void singleRangeIsPartial() throws IOException {
+		MockHttpServletResponse response = serve(range("bytes=2-5"));
+
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+		assertThat(response.getContentAsString()).isEqualTo("2345");
+	}
+
+	@Test
+	void openAndSuffixRanges() throws IOException {
+		assertThat(serve(range("bytes=7-")).getContentAsString()).isEqualTo("789");
+		assertThat(serve(range("bytes=-3")).getContentAsString()).isEqualTo("789");
+		assertThat(serve(range("bytes=8-100")).getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 8-9/10");
+	}
+
+	@Test
+	void rangePastTheEndIsNotSatisfiable() throws IOException {
+		MockHttpServletResponse response = serve(range("bytes=10-20"));
+
+		assertThat(response.getStatus()).isEqualTo(416);
+		assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+	}
+
+	@Test
+	void invalidOrMultipleRangesAreIgnored() throws IOException {
+		for (String header : new String[]{"bytes=5-2", "bytes=0-1,4-5", "items=0-1", "bytes=x-3"}) {
+			MockHttpServletResponse response = serve(range(header));
+
+			assertThat(response.getStatus()).as(header).isEqualTo(200);
+			assertThat(response.getContentAsString()).as(header).isEqualTo(CONTENT);
+		}
+	}
+
+	@Test
+	void staleIfRangeSendsTheWholeFile() throws IOException {
+		String etag = serve(get()).getHeader(HttpHeaders.ETAG);
+
+		MockHttpServletRequest current = range("bytes=0-1");
+		current.addHeader(HttpHeaders.IF_RANGE, etag);
+		assertThat(serve(current).getStatus()).isEqualTo(206);
+
+		MockHttpServletRequest stale = range("bytes=0-1");
+		stale.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+		MockHttpServletResponse response = serve(stale);
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+
+		MockHttpServletRequest byDate = range("bytes=0-1");
+		byDate.addHeader(HttpHeaders.IF_RANGE, httpDate(MODIFIED.minusSeconds(60)));
+		assertThat(serve(byDate).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void tomcatSendfileGetsTheRange() throws IOException {
+		MockHttpServletRequest request = range("bytes=3-4");
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+		MockHttpServletResponse response = serve(request);
+
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getContentAsByteArray()).isEmpty();
+		assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(3L);
+		assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(5L);
+	}
+
+	@Test
+	void missingFileIsNotFound() throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		responder.serve(get(), response, dir.resolve("missing.pdf"), null, null, false);
+
+		assertThat(response.getStatus()).isEqualTo(404);
+	}
+
+	private MockHttpServletResponse serve(MockHttpServletRequest request) throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		responder.serve(request, response, file, null, null, false);
+		return response;
+	}
+
+	private static MockHttpServletRequest get() {
+		return new MockHttpServletRequest("GET", "/files/policy.pdf");
+	}
+
+	private static MockHttpServletRequest range(String header) {
+		MockHttpServletRequest request = get();
+		request.addHeader(HttpHeaders.RANGE, header);
+		return request;
+	}
+
+	private static String httpDate(Instant instant) {
+		return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atOffset(ZoneOffset.UTC));
+	}
+}
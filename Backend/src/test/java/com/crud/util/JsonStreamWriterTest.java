@@ -0,0 +1,61 @@
+package com.crud.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonStreamWriterTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	void arrayFormat() throws IOException {
+		assertThat(write(JsonStreamWriter.Format.ARRAY, List.of(Map.of("id", 1), Map.of("id", 2)), true))
+				.isEqualTo("[{\"id\":1},{\"id\":2}]");
+		assertThat(write(JsonStreamWriter.Format.ARRAY, List.of(), true)).isEqualTo("[]");
+	}
+
+	@Test
+	void unfinishedArrayIsLeftOpen() throws IOException {
+		assertThat(write(JsonStreamWriter.Format.ARRAY, List.of(Map.of("id", 1)), false))
+				.isEqualTo("[{\"id\":1}");
+	}
+
+	@Test
+	void ndjsonFormat() throws IOException {
+		assertThat(write(JsonStreamWriter.Format.NDJSON, List.of(Map.of("id", 1), Map.of("id", 2)), true))
+				.isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+	}
+
+	@Test
+	void closingLeavesTheResponseStreamOpen() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream() {
+			@Override
+			public void close() {
+				throw new AssertionError("response stream closed");
+			}
+		};
+		try (JsonStreamWriter writer = new JsonStreamWriter(mapper, out, JsonStreamWriter.Format.NDJSON)) {
+			writer.write(Map.of("id", 1));
+		}
+		assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n");
+	}
+
+	private String write(JsonStreamWriter.Format format, List<?> rows, boolean finish) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (JsonStreamWriter writer = new JsonStreamWriter(mapper, out, format)) {
+			rows.forEach(writer::write);
+			if (finish) {
+				writer.finish();
+			}
+		}
+		return out.toString(StandardCharsets.UTF_8);
+	}
+}
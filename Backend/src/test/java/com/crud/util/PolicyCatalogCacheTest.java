@@ -0,0 +1,84 @@
+package com.crud.util;
+
+import com.crud.entity.Admin;
+import com.crud.entity.PolicyPlan;
+import com.crud.event.PolicyCatalogChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:policy-catalog;MODE=MySQL;NON_KEYWORDS=USER,VALUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.database=h2",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PolicyCatalogCache.class, ObjectMapper.class, SimpleMeterRegistry.class})
+class PolicyCatalogCacheTest {
+
+	@Autowired
+	private PolicyCatalogCache catalogCache;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	// needed by CrudOperationApplication, which this slice still loads
+	@MockitoBean
+	private PasswordEncoder passwordEncoder;
+
+	private Admin admin;
+
+	@BeforeEach
+	void setUp() {
+		admin = new Admin();
+		admin.setEmail("owner@example.com");
+		admin.setPassword("$2a$10$secret-hash");
+		admin.setPanNumber("ABCDE1234F");
+		entityManager.persist(admin);
+		plan("Gold");
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void publicSnapshotCarriesNoAdminDetails() {
+		String json = new String(catalogCache.get().getJson(), StandardCharsets.UTF_8);
+
+		assertThat(json).contains("\"policyName\":\"Gold\"");
+		assertThat(json).doesNotContain("admin", "owner@example.com", "secret-hash", "ABCDE1234F");
+	}
+
+	@Test
+	void snapshotIsReusedUntilTheCatalogChanges() {
+		PolicyCatalogCache.Snapshot first = catalogCache.get();
+		assertThat(catalogCache.get()).isSameAs(first);
+
+		PolicyPlan silver = plan("Silver");
+		entityManager.flush();
+		catalogCache.onCatalogChanged(new PolicyCatalogChangedEvent(silver.getId()));
+
+		PolicyCatalogCache.Snapshot second = catalogCache.get();
+		assertThat(second.getPlans()).extracting("policyName").containsExactly("Gold", "Silver");
+		assertThat(second.getEtag()).isNotEqualTo(first.getEtag());
+	}
+
+	private PolicyPlan plan(String name) {
+		PolicyPlan plan = new PolicyPlan();
+		plan.setPolicyName(name);
+		plan.setAdmin(admin);
+		return entityManager.persist(plan);
+	}
+}
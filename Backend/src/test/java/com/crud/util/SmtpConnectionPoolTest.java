@@ -0,0 +1,129 @@
+package com.crud.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SmtpConnectionPoolTest {
+
+	private final JavaMailSenderImpl mailSender = mock(JavaMailSenderImpl.class);
+	private final Session session = mock(Session.class);
+	private SmtpConnectionPool pool;
+
+	@BeforeEach
+	void setUp() {
+		when(mailSender.getSession()).thenReturn(session);
+		when(mailSender.getProtocol()).thenReturn("smtp");
+		when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+
+		pool = new SmtpConnectionPool();
+		ReflectionTestUtils.setField(pool, "size", 1);
+		ReflectionTestUtils.setField(pool, "maxMessagesPerConnection", 100);
+		ReflectionTestUtils.setField(pool, "maxLifetimeSeconds", 300L);
+		ReflectionTestUtils.setField(pool, "idleTimeoutSeconds", 60L);
+		ReflectionTestUtils.setField(pool, "validateAfterMs", 10_000L);
+		ReflectionTestUtils.setField(pool, "borrowTimeoutMs", 100L);
+		ReflectionTestUtils.setField(pool, "mailSender", mailSender);
+		ReflectionTestUtils.setField(pool, "meterRegistry", new SimpleMeterRegistry());
+		pool.init();
+	}
+
+	@Test
+	void batchSharesOneConnection() throws Exception {
+		Transport transport = transport();
+		when(session.getTransport(anyString())).thenReturn(transport);
+
+		MailException[] failures = pool.sendBatch(List.of(message("a@example.com"), message("b@example.com")));
+
+		assertThat(failures).containsOnlyNulls();
+		verify(transport, times(2)).sendMessage(any(), any());
+		verify(session, times(1)).getTransport(anyString());
+	}
+
+	@Test
+	void brokenConnectionIsRetriedOnceOnAFreshOne() throws Exception {
+		Transport broken = transport();
+		Transport fresh = transport();
+		when(session.getTransport(anyString())).thenReturn(broken, fresh);
+		doThrow(new MessagingException("connection reset")).when(broken).sendMessage(any(), any());
+
+		MailException[] failures = pool.sendBatch(List.of(message("a@example.com")));
+
+		assertThat(failures).containsOnlyNulls();
+		verify(broken).close();
+		verify(fresh).sendMessage(any(), any());
+	}
+
+	@Test
+	void connectionOpenedAfterAFailedReconnectIsKeptWhenItsMessageIsRejected() throws Exception {
+		Transport first = transport();
+		Transport retry = transport();
+		Transport replacement = transport();
+		when(session.getTransport(anyString())).thenReturn(first, retry, replacement);
+		doThrow(new MessagingException("connection reset")).when(first).sendMessage(any(), any());
+		doThrow(new MessagingException("connection reset")).when(retry).sendMessage(any(), any());
+		doThrow(new SendFailedException("550 no such user")).when(replacement).sendMessage(any(), any());
+
+		MailException[] failures = pool.sendBatch(List.of(message("a@example.com"), message("b@example.com")));
+
+		assertThat(failures).doesNotContainNull();
+		// the replacement is healthy after a recipient rejection: pooled, not dropped or closed
+		verify(replacement, never()).close();
+		doNothing().when(replacement).sendMessage(any(), any());
+		assertThat(pool.sendBatch(List.of(message("c@example.com")))).containsOnlyNulls();
+		verify(session, times(3)).getTransport(anyString());
+	}
+
+	@Test
+	void permitIsReturnedAfterEveryBatch() throws Exception {
+		Transport transport = transport();
+		when(session.getTransport(anyString())).thenReturn(transport);
+		doThrow(new SendFailedException("550 no such user")).when(transport).sendMessage(any(), any());
+
+		for (int i = 0; i < 3; i++) {
+			// pool of one: a leaked permit would time out the next borrow
+			assertThat(pool.sendBatch(List.of(message("a@example.com")))[0])
+					.hasMessageContaining("rejected");
+		}
+	}
+
+	private static Transport transport() throws MessagingException {
+		Transport transport = mock(Transport.class);
+		doNothing().when(transport).connect(any(), any(Integer.class), any(), any());
+		doNothing().when(transport).sendMessage(any(MimeMessage.class), any(Address[].class));
+		return transport;
+	}
+
+	private static SimpleMailMessage message(String to) {
+		SimpleMailMessage message = new SimpleMailMessage();
+		message.setFrom("noreply@example.com");
+		message.setTo(to);
+		message.setSubject("Subject");
+		message.setText("Body");
+		return message;
+	}
+}
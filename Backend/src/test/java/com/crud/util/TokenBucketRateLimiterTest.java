@@ -0,0 +1,70 @@
+package com.crud.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+	@Test
+	void fullBucketAllowsABurstThenRejects() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 3, Duration.ofMinutes(1), Duration.ofMinutes(10));
+
+		assertThat(limiter.tryAcquire("a")).isZero();
+		assertThat(limiter.tryAcquire("a")).isZero();
+		assertThat(limiter.tryAcquire("a")).isZero();
+
+		// one token every 20 s
+		assertThat(limiter.tryAcquire("a")).isBetween(1L, 20L);
+	}
+
+	@Test
+	void keysHaveTheirOwnBuckets() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 1, Duration.ofMinutes(1), Duration.ofMinutes(10));
+
+		assertThat(limiter.tryAcquire("a")).isZero();
+		assertThat(limiter.tryAcquire("a")).isPositive();
+		assertThat(limiter.tryAcquire("b")).isZero();
+		assertThat(limiter.trackedKeys()).isEqualTo(2);
+	}
+
+	@Test
+	void bucketRefillsOverThePeriod() throws InterruptedException {
+		// two tokens per 400 ms: one every 200 ms
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 2, Duration.ofMillis(400), Duration.ofMinutes(10));
+		limiter.tryAcquire("a");
+		limiter.tryAcquire("a");
+		assertThat(limiter.tryAcquire("a")).isPositive();
+
+		Thread.sleep(250);
+
+		assertThat(limiter.tryAcquire("a")).isZero();
+		assertThat(limiter.tryAcquire("a")).as("only one token back so far").isPositive();
+	}
+
+	@Test
+	void refillNeverExceedsCapacity() throws InterruptedException {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 2, Duration.ofMillis(20), Duration.ofMinutes(10));
+		limiter.tryAcquire("a");
+
+		Thread.sleep(100);
+
+		assertThat(limiter.tryAcquire("a")).isZero();
+		assertThat(limiter.tryAcquire("a")).isZero();
+		assertThat(limiter.tryAcquire("a")).isPositive();
+	}
+
+	@Test
+	void idleBucketsAreEvicted() throws InterruptedException {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 1, Duration.ofMillis(50), Duration.ZERO);
+		limiter.tryAcquire("idle");
+
+		Thread.sleep(80);
+		limiter.tryAcquire("busy");
+
+		assertThat(limiter.evictIdle()).isEqualTo(1);
+		assertThat(limiter.trackedKeys()).isEqualTo(1);
+	}
+}
@@ -17,6 +17,7 @@ import {
 } from "@mui/material";
 import axios from "axios";
 import CONFIG from "../../../config/config";
+import axiosInstance from "../../AdminAPI/AdminLoginAPI";
 
 export default function ActivePolicies() {
   const adminId = sessionStorage.getItem("adminId");
@@ -41,9 +42,7 @@ export default function ActivePolicies() {
   const fetchActivePolicies = async () => {
     try {
       setLoading(true);
-      const res = await axios.get(
-        `${BASE_URL}/admin/active-policies/${adminId}`
-      );
+      const res = await axiosInstance.get(`/admin/active-policies/${adminId}`);
 
       if (Array.isArray(res.data)) {
         setPolicies(res.data);
@@ -189,23 +188,14 @@ export default function ActivePolicies() {
                 const coverage =
                   p.coverageAmount ||
                   p.sumAssured ||
-                  p.policyPlan?.coverage ||
+                  p.coverage ||
                   "N/A";
 
-                let policyType = "N/A";
-                if (p.policyPlan?.policyType) {
-                  if (typeof p.policyPlan.policyType === "object") {
-                    policyType = p.policyPlan.policyType.name || "N/A";
-                  } else if (typeof p.policyPlan.policyType === "string") {
-                    policyType = p.policyPlan.policyType;
-                  }
-                }
-
                 return (
                   <TableRow key={p.id} className="pending-body-row">
                     <TableCell className="pending-body-cell">{index + 1}</TableCell>
-                    <TableCell className="pending-body-cell">{p.policyPlan?.policyName || "N/A"}</TableCell>
-                    <TableCell className="pending-body-cell">{policyType}</TableCell>
+                    <TableCell className="pending-body-cell">{p.policyName || "N/A"}</TableCell>
+                    <TableCell className="pending-body-cell">{p.policyType || "N/A"}</TableCell>
                     <TableCell className="pending-body-cell">{coverage}</TableCell>
                     <TableCell className="pending-body-cell">{p.startDate || "N/A"}</TableCell>
                     <TableCell className="pending-body-cell">{p.endDate || "N/A"}</TableCell>
@@ -12,6 +12,7 @@ import {
 } from "@mui/material";
 import axios from "axios";
 import CONFIG from "../../../config/config";
+import axiosInstance from "../../AdminAPI/AdminLoginAPI";
 
 export default function PendingPolicies() {
   const adminId = sessionStorage.getItem("adminId");
@@ -28,9 +29,7 @@ export default function PendingPolicies() {
   const fetchPendingPolicies = async () => {
     try {
       setLoading(true);
-      const res = await axios.get(
-        `${BASE_URL}/admin/pending-policies/${adminId}`
-      );
+      const res = await axiosInstance.get(`/admin/pending-policies/${adminId}`);
 
       if (Array.isArray(res.data)) {
         setPolicies(res.data);
@@ -114,7 +113,7 @@ export default function PendingPolicies() {
                 const coverage =
                   p.coverageAmount ||
                   p.sumAssured ||
-                  p.policyPlan?.coverage ||
+                  p.coverage ||
                   "N/A";
 
                 return (
@@ -123,12 +122,10 @@ export default function PendingPolicies() {
                       {index + 1}
                     </TableCell>
                     <TableCell className="pending-body-cell">
-                      {p.policyPlan?.policyName || "N/A"}
+                      {p.policyName || "N/A"}
                     </TableCell>
                     <TableCell className="pending-body-cell">
-                      {p.policyPlan?.policyType?.name ||
-                        p.policyPlan?.policyType ||
-                        "N/A"}
+                      {p.policyType || "N/A"}
                     </TableCell>
                     <TableCell className="pending-body-cell">
                       {coverage}
@@ -1,29 +1,29 @@
-import axios from "axios";
-import CONFIG from "../../config/config"; 
+// admin-policy endpoints need the admin token, which axiosInstance adds
+import axiosInstance from "./AdminLoginAPI";
 
-const API_URL = `${CONFIG.BASE_URL}/admin-policy`;
+const API_URL = "/admin-policy";
 
 
 // ✅ CREATE Policy
 export const createPolicyPlan = async (adminId, formData) => {
-  return await axios.post(`${API_URL}/${adminId}/policy-plans`, formData, {
+  return await axiosInstance.post(`${API_URL}/${adminId}/policy-plans`, formData, {
     headers: { "Content-Type": "multipart/form-data" },
   });
 };
 
 // ✅ GET Policies
 export const getPlansByAdmin = async (adminId) => {
-  return await axios.get(`${API_URL}/${adminId}/policy-plans`);
+  return await axiosInstance.get(`${API_URL}/${adminId}/policy-plans`);
 };
 
 // ✅ UPDATE Policy
 export const updatePolicyPlan = async (adminId, planId, formData) => {
-  return await axios.put(`${API_URL}/${adminId}/policy-plans/${planId}`, formData, {
+  return await axiosInstance.put(`${API_URL}/${adminId}/policy-plans/${planId}`, formData, {
     headers: { "Content-Type": "multipart/form-data" },
   });
 };
 
 // ✅ DELETE Policy
 export const deletePolicyPlan = async (adminId, planId) => {
-  return await axios.delete(`${API_URL}/${adminId}/policy-plans/${planId}`);
+  return await axiosInstance.delete(`${API_URL}/${adminId}/policy-plans/${planId}`);
 };